@@ -3,35 +3,60 @@ package com.blog.API.GraphQL;
 import com.blog.DataTransporter.Comment.CreateCommentDTO;
 import com.blog.DataTransporter.Comment.UpdateCommentDTO;
 import com.blog.DataTransporter.Post.CreatePostDTO;
+import com.blog.DataTransporter.Post.PostConnection;
+import com.blog.DataTransporter.Post.PostSearchResult;
+import com.blog.DataTransporter.Post.PostSummary;
 import com.blog.DataTransporter.Post.UpdatePostDTO;
 import com.blog.DataTransporter.Tags.PostTagsDTO;
+import com.blog.DataTransporter.Tags.TagCountDTO;
 import com.blog.DataTransporter.User.RegisterUserDTO;
 import com.blog.Model.Comment;
 import com.blog.Model.Post;
+import com.blog.Model.PostTags;
+import com.blog.Search.TagTrie;
 import com.blog.Service.*;
+import com.blog.Utility.CommentCursor;
+import com.blog.Utility.CursorPage;
+import com.blog.Utility.PostCursor;
+import com.blog.Utility.SearchCursor;
+import com.blog.Utility.TagCursor;
+import graphql.schema.DataFetchingEnvironment;
+import graphql.schema.DataFetchingFieldSelectionSet;
 import jakarta.validation.constraints.NotNull;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.graphql.data.method.annotation.Argument;
+import org.springframework.graphql.data.method.annotation.BatchMapping;
 import org.springframework.graphql.data.method.annotation.MutationMapping;
 import org.springframework.graphql.data.method.annotation.QueryMapping;
 import org.springframework.graphql.data.method.annotation.SchemaMapping;
+import org.springframework.graphql.execution.BatchLoaderRegistry;
 import org.springframework.stereotype.Controller;
+import reactor.core.publisher.Mono;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @Controller
 public class GraphQLResolver {
+    private static final String COMMENTS_BY_POST = "Post.comments";
+
     private final PostService postService;
     private final AuthenticationService authService;
     private final CommentService commentService;
     private final TagService tagService;
+    private final TagStatisticsService tagStatistics;
     
-    public GraphQLResolver(PostService postService, AuthenticationService authService, CommentService commentService, TagService tagService) {
+    public GraphQLResolver(PostService postService, AuthenticationService authService, CommentService commentService, TagService tagService, TagStatisticsService tagStatistics, BatchLoaderRegistry batchLoaders) {
         this.postService = postService;
         this.authService = authService;
         this.commentService = commentService;
         this.tagService = tagService;
+        this.tagStatistics = tagStatistics;
+        // Post.comments takes arguments, which @BatchMapping can't pass on, so its loader is registered by hand
+        batchLoaders.<Integer, List<Comment>>forName(COMMENTS_BY_POST).registerMappedBatchLoader((postIds, environment) -> Mono.fromSupplier(() -> commentService.findByPostIds(postIds)));
     }
 
     @QueryMapping
@@ -39,20 +64,55 @@ public class GraphQLResolver {
         return postService.findById(id).orElse(null);
     }
     @QueryMapping
-    public List<Post> findAllPosts(@Argument Integer page, @Argument Integer size) {
+    public List<?> findAllPosts(@Argument Integer page, @Argument Integer size, @Argument Boolean slice, DataFetchingFieldSelectionSet selection) {
         if (page == null) page = 0;
         if (size == null) size = 5;
-        return postService.findAll(PageRequest.of(page, size)).toList();
+        // Bodies are only loaded when the query asks for them, and slices never count
+        boolean bodies = selection.contains("body");
+        if (Boolean.TRUE.equals(slice)) {
+            return bodies ? postService.findSlice(PageRequest.of(page, size)).toList() : postService.findSummarySlice(PageRequest.of(page, size)).toList();
+        }
+        return bodies ? postService.findAll(PageRequest.of(page, size)).toList() : postService.findSummaries(PageRequest.of(page, size)).toList();
+    }
+    @QueryMapping
+    public PostConnection findPostsConnection(@Argument Integer first, @Argument String after, @Argument Integer last, @Argument String before) {
+        if (before != null) {
+            return PostConnection.of(postService.findByCursor(PostCursor.decode(before).withDirection(false), last != null ? last : 5));
+        }
+        if (last != null) throw new IllegalArgumentException("last is only supported together with before");
+        return PostConnection.of(postService.findByCursor(after == null ? null : PostCursor.decode(after).withDirection(true), first != null ? first : 5));
+    }
+    @QueryMapping
+    public CursorPage<PostSearchResult> searchPosts(@Argument String query, @Argument Integer first, @Argument String after) {
+        return postService.search(query, after == null ? null : SearchCursor.decode(after), first != null ? first : 5);
     }
     @QueryMapping
-    public List<String> findAllTags(@Argument Integer page, @Argument Integer size) {
+    public CursorPage<Post> findPostsByTags(@Argument List<String> tags, @Argument Boolean matchAll, @Argument Integer first, @Argument String after) {
+        if (tags.size() > 10) throw new IllegalArgumentException("At most 10 tags can be combined");
+        return postService.findByTags(tags, Boolean.TRUE.equals(matchAll), after == null ? null : TagCursor.decode(after), first != null ? first : 5);
+    }
+    @QueryMapping
+    public List<String> findAllTags(@Argument Integer page, @Argument Integer size, @Argument Boolean slice) {
         if (page == null) page = 0;
         if (size == null) size = 5;
         List<String> allTags = new ArrayList<>();
-        tagService.findAll(PageRequest.of(page, size)).forEach(tags -> allTags.addAll(tags.getTags()));
+        Slice<PostTags> listing = Boolean.TRUE.equals(slice) ? tagService.findSlice(PageRequest.of(page, size)) : tagService.findAll(PageRequest.of(page, size));
+        listing.forEach(tags -> allTags.addAll(tags.getTags()));
         return allTags;
     }
     @QueryMapping
+    public List<TagCountDTO> tagCloud(@Argument Integer limit, @Argument String prefix) {
+        if (limit == null) limit = 50;
+        if (limit < 1 || limit > 500) throw new IllegalArgumentException("limit must be between 1 and 500");
+        return prefix == null ? tagStatistics.mostUsed(limit) : tagStatistics.mostUsedWithPrefix(prefix, limit);
+    }
+    @QueryMapping
+    public List<TagCountDTO> suggestTags(@Argument String prefix, @Argument Integer limit) {
+        if (limit == null) limit = TagTrie.MAX_COMPLETIONS;
+        if (limit < 1 || limit > TagTrie.MAX_COMPLETIONS) throw new IllegalArgumentException("limit must be between 1 and " + TagTrie.MAX_COMPLETIONS);
+        return tagStatistics.complete(prefix, limit);
+    }
+    @QueryMapping
     public List<String> findTagsForPost(@Argument @NotNull Integer postID) {
         return tagService.findByPostId(postID);
     }
@@ -60,6 +120,10 @@ public class GraphQLResolver {
     public List<Comment> findCommentsForPost(@Argument @NotNull Integer postID) {
         return commentService.findByPostId(postID);
     }
+    @QueryMapping
+    public CursorPage<Comment> findCommentPage(@Argument @NotNull Integer postID, @Argument Integer first, @Argument String after) {
+        return commentService.findPage(postID, after == null ? null : CommentCursor.decode(after), first != null ? first : 20);
+    }
     // Mutation Mappings
     @MutationMapping
     public Boolean login(@Argument @NotNull String username, @Argument @NotNull String password) {
@@ -84,6 +148,11 @@ public class GraphQLResolver {
         postService.delete(id);
         return true;
     }
+    @MutationMapping
+    public int deletePosts(@Argument List<Integer> ids) {
+        if (ids.isEmpty() || ids.size() > 1000) throw new IllegalArgumentException("Between 1 and 1000 post IDs are required");
+        return postService.deleteAll(ids);
+    }
 
     @MutationMapping
     public Boolean addComment(@Argument("input") @NotNull CreateCommentDTO input) {
@@ -120,12 +189,38 @@ public class GraphQLResolver {
         tagService.deleteByPostId(postID);
         return true;
     }
-    @SchemaMapping(typeName = "Post", field = "tags")
-    public List<String> getTags(Post post) {
-        return tagService.findByPostId(post.getId());
+    // Post.tags, Post.comments and Post.commentCount are loaded for all the posts of a response at once
+    @BatchMapping(typeName = "Post", field = "tags")
+    public List<List<String>> getTags(List<Object> posts) {
+        Map<Integer, List<String>> tags = tagService.findByPostIds(posts.stream().map(this::postIdOf).toList());
+        return posts.stream().map(post -> tags.getOrDefault(postIdOf(post), List.of())).toList();
     }
+    // Without arguments the whole thread, as before; with them a single page of it, which is cached per page
     @SchemaMapping(typeName = "Post", field = "comments")
-    public List<Comment> getComments(Post post) {
-        return commentService.findByPostId(post.getId());
+    public CompletableFuture<List<Comment>> getComments(Object post, @Argument Integer first, @Argument String after, DataFetchingEnvironment environment) {
+        if (first == null && after == null) return environment.<Integer, List<Comment>>getDataLoader(COMMENTS_BY_POST).load(postIdOf(post));
+        return CompletableFuture.completedFuture(commentService.findPage(postIdOf(post), after == null ? null : CommentCursor.decode(after), first != null ? first : 20).items());
+    }
+    @BatchMapping(typeName = "Post", field = "commentCount")
+    public List<Long> getCommentCount(List<Object> posts) {
+        Map<Integer, Long> counts = commentService.countsFor(posts.stream().map(this::postIdOf).toList());
+        return posts.stream().map(post -> counts.getOrDefault(postIdOf(post), 0L)).toList();
+    }
+    @SchemaMapping(typeName = "Post", field = "excerpt")
+    public String getExcerpt(Object post) {
+        return switch (post) {
+            case PostSummary summary -> summary.excerpt();
+            case Post entity -> PostSummary.excerptOf(entity.getBody());
+            default -> throw new IllegalArgumentException("Not a post: " + post);
+        };
+    }
+
+    // Post fields resolve against either the entity or, for listings that skip the body, a PostSummary
+    private int postIdOf(Object post) {
+        return switch (post) {
+            case PostSummary summary -> summary.id();
+            case Post entity -> entity.getId();
+            default -> throw new IllegalArgumentException("Not a post: " + post);
+        };
     }
 }
\ No newline at end of file
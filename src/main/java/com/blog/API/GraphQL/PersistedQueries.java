@@ -0,0 +1,130 @@
+package com.blog.API.GraphQL;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import graphql.ErrorType;
+import graphql.ExecutionInput;
+import graphql.GraphQLError;
+import graphql.GraphqlErrorBuilder;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.execution.preparsed.PreparsedDocumentProvider;
+import graphql.execution.preparsed.persisted.PersistedQueryIdInvalid;
+import graphql.execution.preparsed.persisted.PersistedQueryNotFound;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.graphql.GraphQlSourceBuilderCustomizer;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.graphql.execution.GraphQlSource;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+// Parsed and validated documents, keyed by the SHA-256 of their text, so a document the server has seen
+// before skips straight to execution. The same key serves Automatic Persisted Queries: a client sends only
+// extensions.persistedQuery.sha256Hash, and the full document once after a PersistedQueryNotFound. With
+// registered-only set, just the operations of the manifest are served, by hash or by text, and nothing
+// else is parsed at all.
+@Component
+public class PersistedQueries implements PreparsedDocumentProvider, GraphQlSourceBuilderCustomizer {
+    private static final Logger logger = LoggerFactory.getLogger(PersistedQueries.class);
+
+    private final Cache<String, PreparsedDocumentEntry> documents;
+    private final Map<String, String> registered;
+    private final boolean registeredOnly;
+
+    public PersistedQueries(
+            @Value("${blog.graphql.document-cache-size:500}") long documentCacheSize,
+            @Value("${blog.graphql.persisted-queries.manifest:}") String manifest,
+            @Value("${blog.graphql.persisted-queries.registered-only:false}") boolean registeredOnly,
+            ResourceLoader resourceLoader,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        this.documents = Caffeine.newBuilder().maximumSize(documentCacheSize).recordStats().build();
+        this.registered = manifest.isBlank() ? Map.of() : load(resourceLoader.getResource(manifest));
+        this.registeredOnly = registeredOnly;
+        if (registeredOnly && registered.isEmpty()) throw new IllegalStateException("registered-only persisted queries need a manifest with at least one operation");
+        meterRegistry.ifAvailable(registry -> CaffeineCacheMetrics.monitor(registry, documents, "graphql.documents"));
+    }
+
+    @Override
+    public void customize(GraphQlSource.SchemaResourceBuilder builder) {
+        builder.configureGraphQl(graphQl -> graphQl.preparsedDocumentProvider(this));
+    }
+
+    @Override
+    public CompletableFuture<PreparsedDocumentEntry> getDocumentAsync(ExecutionInput input, Function<ExecutionInput, PreparsedDocumentEntry> parseAndValidate) {
+        String query = input.getQuery();
+        String hash = persistedQueryHashOf(input);
+        if (hash != null && (query == null || query.isBlank())) {
+            PreparsedDocumentEntry cached = documents.getIfPresent(hash);
+            if (cached != null) return CompletableFuture.completedFuture(cached);
+            String registeredQuery = registered.get(hash);
+            if (registeredQuery == null) return rejected(registeredOnly ? notRegistered() : new PersistedQueryNotFound(hash));
+            return CompletableFuture.completedFuture(documents.get(hash, key -> parseAndValidate.apply(input.transform(builder -> builder.query(registeredQuery)))));
+        }
+        if (query == null || query.isBlank()) return rejected(missingQuery());
+        String queryHash = sha256(query);
+        if (hash != null && !hash.equals(queryHash)) return rejected(new PersistedQueryIdInvalid(hash));
+        if (registeredOnly && !registered.containsKey(queryHash)) return rejected(notRegistered());
+        return CompletableFuture.completedFuture(documents.get(queryHash, key -> parseAndValidate.apply(input)));
+    }
+
+    @Nullable
+    private static String persistedQueryHashOf(ExecutionInput input) {
+        if (!(input.getExtensions().get("persistedQuery") instanceof Map<?, ?> persistedQuery)) return null;
+        return persistedQuery.get("sha256Hash") instanceof String hash ? hash.toLowerCase(Locale.ROOT) : null;
+    }
+    private static CompletableFuture<PreparsedDocumentEntry> rejected(GraphQLError error) {
+        return CompletableFuture.completedFuture(new PreparsedDocumentEntry(error));
+    }
+    private static GraphQLError missingQuery() {
+        return GraphqlErrorBuilder.newError()
+                .message("Invalid syntax: the request carries neither a query document nor a persisted query hash.")
+                .errorType(ErrorType.InvalidSyntax)
+                .build();
+    }
+    private static GraphQLError notRegistered() {
+        return GraphqlErrorBuilder.newError()
+                .message("Only registered queries are served. Please use a query that ships with the client.")
+                .extensions(Map.of("code", "QUERY_NOT_REGISTERED", "type", "VALIDATION_ERROR"))
+                .build();
+    }
+    // An Apollo persisted-query manifest; operations are keyed by the hash of their body, which is what
+    // clients send, rather than by the id the manifest claims
+    private static Map<String, String> load(Resource manifest) {
+        try (InputStream in = manifest.getInputStream()) {
+            Map<String, String> operations = new HashMap<>();
+            for (JsonNode operation : new ObjectMapper().readTree(in).path("operations")) {
+                String body = operation.path("body").asText();
+                String hash = sha256(body);
+                if (!hash.equals(operation.path("id").asText(hash))) logger.warn("Persisted query {} is registered under {}, the hash of its body", operation.path("id").asText(), hash);
+                operations.put(hash, body);
+            }
+            logger.info("Registered {} persisted queries from {}", operations.size(), manifest.getDescription());
+            return Map.copyOf(operations);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not read persisted query manifest " + manifest.getDescription(), e);
+        }
+    }
+    private static String sha256(String text) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
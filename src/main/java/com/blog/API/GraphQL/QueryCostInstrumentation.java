@@ -0,0 +1,139 @@
+package com.blog.API.GraphQL;
+
+import graphql.ExecutionResult;
+import graphql.analysis.QueryTraverser;
+import graphql.analysis.QueryVisitorFieldEnvironment;
+import graphql.analysis.QueryVisitorStub;
+import graphql.execution.AbortExecutionException;
+import graphql.execution.ExecutionContext;
+import graphql.execution.instrumentation.InstrumentationContext;
+import graphql.execution.instrumentation.InstrumentationState;
+import graphql.execution.instrumentation.SimplePerformantInstrumentation;
+import graphql.execution.instrumentation.parameters.InstrumentationCreateStateParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationExecuteOperationParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationExecutionParameters;
+import graphql.schema.GraphQLCompositeType;
+import graphql.schema.GraphQLList;
+import graphql.schema.GraphQLType;
+import graphql.schema.GraphQLTypeUtil;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+// Prices an operation from its document and variables before anything is fetched, and refuses it if the
+// price or the nesting depth is over the limit. A field costs its weight plus what its selections cost,
+// times the number of items it returns: the paging argument when there is one, on the list itself or on
+// the connection or cursor page around it, otherwise the expected size of a list. The price of every operation, refused or not, goes back in the "cost" response extension.
+@Component
+public class QueryCostInstrumentation extends SimplePerformantInstrumentation {
+    private static final List<String> SIZE_ARGUMENTS = List.of("first", "last", "size", "limit");
+    // Scalar fields that are fetched on their own rather than read off the parent object
+    private static final Set<String> FETCHED_SCALARS = Set.of("Post.tags", "Post.commentCount");
+
+    private final long maxCost;
+    private final int maxDepth;
+    private final int expectedListSize;
+
+    public QueryCostInstrumentation(
+            @Value("${blog.graphql.max-cost:10000}") long maxCost,
+            @Value("${blog.graphql.max-depth:10}") int maxDepth,
+            @Value("${blog.graphql.expected-list-size:20}") int expectedListSize) {
+        this.maxCost = maxCost;
+        this.maxDepth = maxDepth;
+        this.expectedListSize = expectedListSize;
+    }
+
+    @Override
+    public InstrumentationState createState(InstrumentationCreateStateParameters parameters) {
+        return new CostState();
+    }
+    @Override
+    public InstrumentationContext<ExecutionResult> beginExecuteOperation(InstrumentationExecuteOperationParameters parameters, InstrumentationState state) {
+        CostState cost = (CostState) state;
+        price(parameters.getExecutionContext(), cost);
+        if (cost.depth > maxDepth) throw new AbortExecutionException("Query depth " + cost.depth + " exceeds the maximum of " + maxDepth);
+        if (cost.cost > maxCost) throw new AbortExecutionException("Query cost " + cost.cost + " exceeds the budget of " + maxCost);
+        return super.beginExecuteOperation(parameters, state);
+    }
+    @Override
+    public CompletableFuture<ExecutionResult> instrumentExecutionResult(ExecutionResult executionResult, InstrumentationExecutionParameters parameters, InstrumentationState state) {
+        CostState cost = (CostState) state;
+        // Not priced when the document didn't parse or validate
+        if (cost == null || !cost.priced) return CompletableFuture.completedFuture(executionResult);
+        Map<String, Object> extension = Map.of("requested", cost.cost, "budget", maxCost, "depth", cost.depth, "maxDepth", maxDepth);
+        return CompletableFuture.completedFuture(executionResult.transform(builder -> builder.addExtension("cost", extension)));
+    }
+
+    private void price(ExecutionContext context, CostState state) {
+        // Post-order, so a field is visited after its selections; totals are handed up keyed by the parent,
+        // which is null for the operation's top-level fields
+        Map<QueryVisitorFieldEnvironment, Long> selectionCosts = new HashMap<>();
+        Map<QueryVisitorFieldEnvironment, Integer> selectionDepths = new HashMap<>();
+        QueryTraverser.newQueryTraverser()
+                .schema(context.getGraphQLSchema())
+                .document(context.getDocument())
+                .operationName(context.getOperationDefinition().getName())
+                .coercedVariables(context.getCoercedVariables())
+                .build()
+                .visitPostOrder(new QueryVisitorStub() {
+                    @Override
+                    public void visitField(QueryVisitorFieldEnvironment environment) {
+                        if (isIntrospection(environment)) return;
+                        long cost = saturatedMultiply(itemsOf(environment), saturatedAdd(weightOf(environment), selectionCosts.getOrDefault(environment, 0L)));
+                        int depth = 1 + selectionDepths.getOrDefault(environment, 0);
+                        selectionCosts.merge(environment.getParentEnvironment(), cost, QueryCostInstrumentation::saturatedAdd);
+                        selectionDepths.merge(environment.getParentEnvironment(), depth, Math::max);
+                    }
+                });
+        state.cost = selectionCosts.getOrDefault(null, 0L);
+        state.depth = selectionDepths.getOrDefault(null, 0);
+        state.priced = true;
+    }
+    private long itemsOf(QueryVisitorFieldEnvironment environment) {
+        if (!isListOfObjects(environment.getFieldDefinition().getType())) return 1;
+        Long requested = sizeArgumentOf(environment);
+        if (requested != null) return Math.max(requested, 0);
+        // A connection or cursor page is paged by its own arguments, and its edges or items are the list they size
+        QueryVisitorFieldEnvironment parent = environment.getParentEnvironment();
+        if (parent != null && !isList(parent.getFieldDefinition().getType())) {
+            Long paged = sizeArgumentOf(parent);
+            if (paged != null) return Math.max(paged, 0);
+        }
+        return expectedListSize;
+    }
+    private long weightOf(QueryVisitorFieldEnvironment environment) {
+        if (GraphQLTypeUtil.unwrapAll(environment.getFieldDefinition().getType()) instanceof GraphQLCompositeType) return 1;
+        return FETCHED_SCALARS.contains(environment.getFieldsContainer().getName() + "." + environment.getFieldDefinition().getName()) ? 1 : 0;
+    }
+    private static Long sizeArgumentOf(QueryVisitorFieldEnvironment environment) {
+        for (String name : SIZE_ARGUMENTS) {
+            if (environment.getArguments().get(name) instanceof Number size) return size.longValue();
+        }
+        return null;
+    }
+    private static boolean isListOfObjects(GraphQLType type) {
+        return isList(type) && GraphQLTypeUtil.unwrapAll(type) instanceof GraphQLCompositeType;
+    }
+    private static boolean isList(GraphQLType type) {
+        return GraphQLTypeUtil.unwrapNonNull(type) instanceof GraphQLList;
+    }
+    // Huge page sizes must not wrap around into a cost that passes
+    private static long saturatedAdd(long a, long b) {
+        long sum = a + b;
+        return sum < 0 ? Long.MAX_VALUE : sum;
+    }
+    private static long saturatedMultiply(long a, long b) {
+        return a != 0 && b > Long.MAX_VALUE / a ? Long.MAX_VALUE : a * b;
+    }
+    private static boolean isIntrospection(QueryVisitorFieldEnvironment environment) {
+        return environment.isTypeNameIntrospectionField() || environment.getFieldDefinition().getName().startsWith("__") || environment.getFieldsContainer().getName().startsWith("__");
+    }
+
+    private static final class CostState implements InstrumentationState {
+        private long cost;
+        private int depth;
+        private boolean priced;
+    }
+}
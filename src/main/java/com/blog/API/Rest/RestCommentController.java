@@ -4,7 +4,11 @@ import com.blog.API.Response.SuccessResponse;
 import com.blog.DataTransporter.Comment.CreateCommentDTO;
 import com.blog.DataTransporter.Comment.ResponseCommentDTO;
 import com.blog.DataTransporter.Comment.UpdateCommentDTO;
+import com.blog.Model.Comment;
 import com.blog.Service.CommentService;
+import com.blog.Utility.CommentCursor;
+import com.blog.Utility.CursorPage;
+import com.blog.Utility.EntityTag;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -13,11 +17,13 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -42,6 +48,11 @@ public class RestCommentController {
             description = "Comments retrieved successfully",
             content = @Content(schema = @Schema(implementation = SuccessResponse.class))
         ),
+        @ApiResponse(
+            responseCode = "304",
+            description = "Comments unchanged since the version identified by If-None-Match",
+            content = @Content
+        ),
         @ApiResponse(
             responseCode = "400",
             description = "Invalid post ID - ID must be a positive integer",
@@ -55,9 +66,47 @@ public class RestCommentController {
     })
     public ResponseEntity<SuccessResponse<List<ResponseCommentDTO>>> getCommentsForPost(
         @Parameter(description = "ID of the post to retrieve comments for", required = true, example = "1")
-        @PathVariable @Min(1) Integer postId
+        @PathVariable @Min(1) Integer postId,
+        WebRequest request
+    ) {
+        List<Comment> comments = commentService.findByPostId(postId);
+        if (request.checkNotModified(EntityTag.of("comments").add(postId).add(comments).toString())) return null;
+        return ResponseEntity.ok(new SuccessResponse<>(HttpStatus.OK, "Comments retrieved successfully", comments.stream().map(ResponseCommentDTO::new).toList()));
+    }
+    @GetMapping(value = "/post/{postId}", params = "cursor")
+    @Operation(
+        summary = "Get comments for a post by cursor",
+        description = "Retrieves a post's comments oldest first, one page at a time, using keyset pagination. Pass an empty cursor for the first page, then the nextCursor of the previous response. Pages cost the same however long the thread is."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Comments retrieved successfully",
+            content = @Content(schema = @Schema(implementation = SuccessResponse.class))
+        ),
+        @ApiResponse(
+            responseCode = "304",
+            description = "Comments unchanged since the version identified by If-None-Match",
+            content = @Content
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Invalid post ID, malformed cursor or invalid page size",
+            content = @Content(schema = @Schema(implementation = String.class))
+        )
+    })
+    public ResponseEntity<SuccessResponse<CursorPage<ResponseCommentDTO>>> getCommentPageForPost(
+        @Parameter(description = "ID of the post to retrieve comments for", required = true, example = "1")
+        @PathVariable @Min(1) Integer postId,
+        @Parameter(description = "Opaque cursor from a previous response; empty for the first page", example = "")
+        @RequestParam String cursor,
+        @Parameter(description = "Number of comments per page", example = "20")
+        @RequestParam(defaultValue = "20") @Min(1) @Max(100) int size,
+        WebRequest request
     ) {
-        return ResponseEntity.ok(new SuccessResponse<>(HttpStatus.OK, "Comments retrieved successfully", commentService.findByPostId(postId).stream().map(ResponseCommentDTO::new).toList()));
+        CursorPage<Comment> comments = commentService.findPage(postId, cursor.isBlank() ? null : CommentCursor.decode(cursor), size);
+        if (request.checkNotModified(EntityTag.of("comment-page").add(postId).add(comments.items()).add(comments.hasNext()).toString())) return null;
+        return ResponseEntity.ok(new SuccessResponse<>(HttpStatus.OK, "Comments retrieved successfully", comments.map(ResponseCommentDTO::new)));
     }
     @PostMapping
     @Operation(
@@ -2,9 +2,19 @@ package com.blog.API.Rest;
 
 import com.blog.API.Response.SuccessResponse;
 import com.blog.DataTransporter.Post.CreatePostDTO;
+import com.blog.DataTransporter.Post.PostSearchResult;
+import com.blog.DataTransporter.Post.PostSummary;
 import com.blog.DataTransporter.Post.ResponsePostDTO;
+import com.blog.DataTransporter.Post.ResponsePostSummaryDTO;
 import com.blog.DataTransporter.Post.UpdatePostDTO;
+import com.blog.Model.Post;
+import com.blog.Service.CommentService;
 import com.blog.Service.PostService;
+import com.blog.Utility.CursorPage;
+import com.blog.Utility.EntityTag;
+import com.blog.Utility.PostCursor;
+import com.blog.Utility.SearchCursor;
+import com.blog.Utility.TagCursor;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -13,12 +23,19 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
 import org.springframework.data.domain.*;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.*;
+import java.util.function.Function;
 
 @RestController
 @RequestMapping("api/posts")
@@ -26,9 +43,11 @@ import org.springframework.web.bind.annotation.*;
 @Tag(name = "Posts", description = "Blog post management APIs for creating, reading, updating, and deleting blog posts with pagination and sorting support")
 public class RestPostController {
     private final PostService postService;
+    private final CommentService commentService;
 
-    public RestPostController(PostService postService) {
+    public RestPostController(PostService postService, CommentService commentService) {
         this.postService = postService;
+        this.commentService = commentService;
     }
     @GetMapping("/{id}")
     @Operation(
@@ -41,6 +60,11 @@ public class RestPostController {
             description = "Post found and returned successfully",
             content = @Content(schema = @Schema(implementation = SuccessResponse.class))
         ),
+        @ApiResponse(
+            responseCode = "304",
+            description = "Post unchanged since the version identified by If-None-Match",
+            content = @Content
+        ),
         @ApiResponse(
             responseCode = "404",
             description = "Post not found - no post exists with the provided ID",
@@ -54,9 +78,14 @@ public class RestPostController {
     })
     public ResponseEntity<SuccessResponse<ResponsePostDTO>> findById(
         @Parameter(description = "ID of the post to retrieve", required = true, example = "1")
-        @PathVariable @Min(1) Integer id
+        @PathVariable @Min(1) Integer id,
+        WebRequest request
     ) {
-        return postService.findById(id).map(ResponsePostDTO::new).map(dto -> ResponseEntity.status(HttpStatus.OK).body(new SuccessResponse<>(HttpStatus.OK, "Post found and returned successfully", dto))).orElse(ResponseEntity.status(HttpStatus.NOT_FOUND).body(new SuccessResponse<>(HttpStatus.NOT_FOUND, "Post not found")));
+        Optional<Post> post = postService.findById(id);
+        if (post.isEmpty()) return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new SuccessResponse<>(HttpStatus.NOT_FOUND, "Post not found"));
+        long commentCount = commentService.countFor(id);
+        if (request.checkNotModified(EntityTag.of("post").add(post.get()).add(commentCount).toString())) return null;
+        return ResponseEntity.status(HttpStatus.OK).body(new SuccessResponse<>(HttpStatus.OK, "Post found and returned successfully", new ResponsePostDTO(post.get(), commentCount)));
     }
     @GetMapping
     @Operation(
@@ -69,14 +98,214 @@ public class RestPostController {
             description = "Posts retrieved successfully",
             content = @Content(schema = @Schema(implementation = SuccessResponse.class))
         ),
+        @ApiResponse(
+            responseCode = "304",
+            description = "No post changed since the version identified by If-None-Match",
+            content = @Content
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Invalid pagination or sorting parameters",
+            content = @Content(schema = @Schema(implementation = String.class))
+        )
+    })
+    public ResponseEntity<SuccessResponse<Page<ResponsePostDTO>>> findAll(Pageable pageable, WebRequest request) {
+        Page<Post> page = postService.findAll(pageable);
+        Map<Integer, Long> counts = commentCountsOf(page.getContent());
+        if (request.checkNotModified(EntityTag.of("posts").add(page.getContent()).add(counts).add(page.getTotalElements()).toString())) return null;
+        return ResponseEntity.status(HttpStatus.OK).body(new SuccessResponse<>(HttpStatus.OK, "Posts retrieved successfully", page.map(withCommentCounts(counts)))) ;
+    }
+    @GetMapping("/search")
+    @Operation(
+        summary = "Search posts",
+        description = "Full-text search over post titles and bodies, most relevant first. Supports quoted phrases, OR and -excluded words. Pass the nextCursor of a response to get the following page."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Search results retrieved successfully",
+            content = @Content(schema = @Schema(implementation = SuccessResponse.class))
+        ),
+        @ApiResponse(
+            responseCode = "304",
+            description = "No post changed since the version identified by If-None-Match",
+            content = @Content
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Blank query, malformed cursor or invalid page size",
+            content = @Content(schema = @Schema(implementation = String.class))
+        )
+    })
+    public ResponseEntity<SuccessResponse<CursorPage<PostSearchResult>>> search(
+        @Parameter(description = "Search query", required = true, example = "spring boot")
+        @RequestParam String q,
+        @Parameter(description = "Opaque cursor from a previous response; omit for the first page")
+        @RequestParam(required = false) String cursor,
+        @Parameter(description = "Number of results per page", example = "20")
+        @RequestParam(defaultValue = "20") @Min(1) @Max(100) int size,
+        WebRequest request
+    ) {
+        CursorPage<PostSearchResult> results = postService.search(q, cursor == null || cursor.isBlank() ? null : SearchCursor.decode(cursor), size);
+        if (request.checkNotModified(EntityTag.of("search").add(results).toString())) return null;
+        return ResponseEntity.status(HttpStatus.OK).body(new SuccessResponse<>(HttpStatus.OK, "Search results retrieved successfully", results));
+    }
+    @GetMapping("/tagged")
+    @Operation(
+        summary = "Get posts by tag",
+        description = "Retrieves posts carrying the given tags, newest first. With match=all a post needs every tag, with match=any (the default) one of them is enough. Pass the nextCursor of a response to get the following page."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Posts retrieved successfully",
+            content = @Content(schema = @Schema(implementation = SuccessResponse.class))
+        ),
+        @ApiResponse(
+            responseCode = "304",
+            description = "No post or tag changed since the version identified by If-None-Match",
+            content = @Content
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Missing or too many tags, unknown match mode, malformed cursor or invalid page size",
+            content = @Content(schema = @Schema(implementation = String.class))
+        )
+    })
+    public ResponseEntity<SuccessResponse<CursorPage<ResponsePostDTO>>> findByTags(
+        @Parameter(description = "Tags to filter by; repeat the parameter for several", required = true, example = "java")
+        @RequestParam @Size(min = 1, max = 10) List<String> tag,
+        @Parameter(description = "all to require every tag, any to require at least one", example = "any")
+        @RequestParam(defaultValue = "any") @Pattern(regexp = "all|any") String match,
+        @Parameter(description = "Opaque cursor from a previous response; omit for the first page")
+        @RequestParam(required = false) String cursor,
+        @Parameter(description = "Number of posts per page", example = "20")
+        @RequestParam(defaultValue = "20") @Min(1) @Max(100) int size,
+        WebRequest request
+    ) {
+        CursorPage<Post> posts = postService.findByTags(tag, match.equals("all"), cursor == null || cursor.isBlank() ? null : TagCursor.decode(cursor), size);
+        Map<Integer, Long> counts = commentCountsOf(posts.items());
+        if (request.checkNotModified(EntityTag.of("tagged").add(posts.items()).add(counts).add(posts.hasNext()).toString())) return null;
+        CursorPage<ResponsePostDTO> page = posts.map(withCommentCounts(counts));
+        return ResponseEntity.status(HttpStatus.OK).body(new SuccessResponse<>(HttpStatus.OK, "Posts retrieved successfully", page));
+    }
+    @GetMapping(params = "view=summary")
+    @Operation(
+        summary = "Get post summaries",
+        description = "Same pages as the plain listing, with a short excerpt in place of each post body. Use GET /api/posts/{id} to load the full body of a single post."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Post summaries retrieved successfully",
+            content = @Content(schema = @Schema(implementation = SuccessResponse.class))
+        ),
+        @ApiResponse(
+            responseCode = "304",
+            description = "No post changed since the version identified by If-None-Match",
+            content = @Content
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Invalid pagination or sorting parameters",
+            content = @Content(schema = @Schema(implementation = String.class))
+        )
+    })
+    public ResponseEntity<SuccessResponse<Page<ResponsePostSummaryDTO>>> findSummaries(Pageable pageable, WebRequest request) {
+        Page<PostSummary> summaries = postService.findSummaries(pageable);
+        if (request.checkNotModified(EntityTag.of("summaries").add(summaries.getContent()).add(summaries.getTotalElements()).toString())) return null;
+        return ResponseEntity.status(HttpStatus.OK).body(new SuccessResponse<>(HttpStatus.OK, "Post summaries retrieved successfully", summaries.map(ResponsePostSummaryDTO::new)));
+    }
+    // Matches both view=summary and slice=true; Spring prefers it as the mapping with more parameter conditions
+    @GetMapping(params = {"view=summary", "slice=true"})
+    @Operation(
+        summary = "Get post summaries without a total",
+        description = "Post summaries as with view=summary, paged like slice=true: the response only says whether another page follows, so no COUNT query runs."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Post summaries retrieved successfully",
+            content = @Content(schema = @Schema(implementation = SuccessResponse.class))
+        ),
+        @ApiResponse(
+            responseCode = "304",
+            description = "No post changed since the version identified by If-None-Match",
+            content = @Content
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Invalid pagination or sorting parameters",
+            content = @Content(schema = @Schema(implementation = String.class))
+        )
+    })
+    public ResponseEntity<SuccessResponse<Slice<ResponsePostSummaryDTO>>> findSummarySlice(Pageable pageable, WebRequest request) {
+        Slice<PostSummary> summaries = postService.findSummarySlice(pageable);
+        if (request.checkNotModified(EntityTag.of("summary-slice").add(summaries.getContent()).add(summaries.hasNext()).toString())) return null;
+        return ResponseEntity.status(HttpStatus.OK).body(new SuccessResponse<>(HttpStatus.OK, "Post summaries retrieved successfully", summaries.map(ResponsePostSummaryDTO::new)));
+    }
+    @GetMapping(params = "slice=true")
+    @Operation(
+        summary = "Get posts without a total",
+        description = "Same pages as the plain listing, but the response only says whether another page follows instead of carrying totalElements and totalPages, which saves a COUNT query per request. Meant for infinite-scroll clients."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Posts retrieved successfully",
+            content = @Content(schema = @Schema(implementation = SuccessResponse.class))
+        ),
+        @ApiResponse(
+            responseCode = "304",
+            description = "No post changed since the version identified by If-None-Match",
+            content = @Content
+        ),
         @ApiResponse(
             responseCode = "400",
             description = "Invalid pagination or sorting parameters",
             content = @Content(schema = @Schema(implementation = String.class))
         )
     })
-    public ResponseEntity<SuccessResponse<Page<ResponsePostDTO>>> findAll(Pageable pageable) {
-        return ResponseEntity.status(HttpStatus.OK).body(new SuccessResponse<>(HttpStatus.OK, "Posts retrieved successfully", postService.findAll(pageable).map(ResponsePostDTO::new))) ;
+    public ResponseEntity<SuccessResponse<Slice<ResponsePostDTO>>> findSlice(Pageable pageable, WebRequest request) {
+        Slice<Post> slice = postService.findSlice(pageable);
+        Map<Integer, Long> counts = commentCountsOf(slice.getContent());
+        if (request.checkNotModified(EntityTag.of("slice").add(slice.getContent()).add(counts).add(slice.hasNext()).toString())) return null;
+        return ResponseEntity.status(HttpStatus.OK).body(new SuccessResponse<>(HttpStatus.OK, "Posts retrieved successfully", slice.map(withCommentCounts(counts))));
+    }
+    @GetMapping(params = "cursor")
+    @Operation(
+        summary = "Get posts by cursor",
+        description = "Retrieves posts newest first using keyset pagination, which stays fast however deep the client reads. Pass an empty cursor for the first page, then the nextCursor or previousCursor of the previous response."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Posts retrieved successfully",
+            content = @Content(schema = @Schema(implementation = SuccessResponse.class))
+        ),
+        @ApiResponse(
+            responseCode = "304",
+            description = "No post changed since the version identified by If-None-Match",
+            content = @Content
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Malformed cursor or invalid page size",
+            content = @Content(schema = @Schema(implementation = String.class))
+        )
+    })
+    public ResponseEntity<SuccessResponse<CursorPage<ResponsePostDTO>>> findByCursor(
+        @Parameter(description = "Opaque cursor from a previous response; empty for the first page", example = "")
+        @RequestParam String cursor,
+        @Parameter(description = "Number of posts per page", example = "20")
+        @RequestParam(defaultValue = "20") @Min(1) @Max(100) int size,
+        WebRequest request
+    ) {
+        CursorPage<Post> posts = postService.findByCursor(cursor.isBlank() ? null : PostCursor.decode(cursor), size);
+        Map<Integer, Long> counts = commentCountsOf(posts.items());
+        if (request.checkNotModified(EntityTag.of("cursor").add(posts.items()).add(counts).add(posts.hasNext()).add(posts.hasPrevious()).toString())) return null;
+        CursorPage<ResponsePostDTO> page = posts.map(withCommentCounts(counts));
+        return ResponseEntity.status(HttpStatus.OK).body(new SuccessResponse<>(HttpStatus.OK, "Posts retrieved successfully", page));
     }
     @PostMapping
     @Operation(
@@ -101,7 +330,7 @@ public class RestPostController {
         )
     })
     public ResponseEntity<SuccessResponse<ResponsePostDTO>> createPost(@Valid @RequestBody CreatePostDTO createDTO) {
-        ResponsePostDTO response = new ResponsePostDTO(postService.save(createDTO));
+        ResponsePostDTO response = new ResponsePostDTO(postService.save(createDTO), 0);
         return ResponseEntity.status(HttpStatus.CREATED).body(new SuccessResponse<>(HttpStatus.CREATED, "Post created successfully", response));
     }
     @PutMapping
@@ -132,7 +361,7 @@ public class RestPostController {
         )
     })
     public ResponseEntity<SuccessResponse<ResponsePostDTO>> updatePost(@Valid @RequestBody UpdatePostDTO updateDTO) {
-        ResponsePostDTO response = new ResponsePostDTO(postService.update(updateDTO));
+        ResponsePostDTO response = new ResponsePostDTO(postService.update(updateDTO), commentService.countFor(updateDTO.postId()));
         return ResponseEntity.status(HttpStatus.OK).body(new SuccessResponse<>(HttpStatus.OK, "Post updated successfully", response))   ;
     }
     @DeleteMapping("/{id}")
@@ -164,4 +393,36 @@ public class RestPostController {
         postService.delete(id);
         return ResponseEntity.status(HttpStatus.OK).body(new SuccessResponse<>(HttpStatus.OK, "Post deleted successfully")) ;
     }
-}
\ No newline at end of file
+    @DeleteMapping
+    @Operation(
+        summary = "Delete posts in bulk",
+        description = "Deletes every listed post together with its comments and tags, using a fixed number of statements regardless of how many posts and comments are involved. IDs without a post are skipped; the response carries the number of posts deleted."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Posts deleted successfully",
+            content = @Content(schema = @Schema(implementation = SuccessResponse.class))
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Invalid IDs - between 1 and 1000 positive integers are required",
+            content = @Content(schema = @Schema(implementation = String.class))
+        )
+    })
+    public ResponseEntity<SuccessResponse<Integer>> deletePosts(
+        @Parameter(description = "IDs of the posts to delete", required = true, example = "1,2,3")
+        @RequestParam @Size(min = 1, max = 1000) List<@Min(1) Integer> ids
+    ) {
+        return ResponseEntity.status(HttpStatus.OK).body(new SuccessResponse<>(HttpStatus.OK, "Posts deleted successfully", postService.deleteAll(ids)));
+    }
+
+    // Counts for a whole page are looked up together. Sorted, so the ETag they go into doesn't depend on
+    // the order the lookup happened to return them in
+    private Map<Integer, Long> commentCountsOf(Collection<Post> posts) {
+        return new TreeMap<>(commentService.countsFor(posts.stream().map(Post::getId).toList()));
+    }
+    private static Function<Post, ResponsePostDTO> withCommentCounts(Map<Integer, Long> counts) {
+        return post -> new ResponsePostDTO(post, counts.getOrDefault(post.getId(), 0L));
+    }
+}
@@ -3,7 +3,12 @@ package com.blog.API.Rest;
 import com.blog.API.Response.SuccessResponse;
 import com.blog.DataTransporter.Tags.PostTagsDTO;
 import com.blog.DataTransporter.Tags.ResponseTagsDTO;
+import com.blog.DataTransporter.Tags.TagCountDTO;
+import com.blog.Model.PostTags;
+import com.blog.Search.TagTrie;
 import com.blog.Service.TagService;
+import com.blog.Service.TagStatisticsService;
+import com.blog.Utility.EntityTag;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -12,12 +17,15 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.*;
 
@@ -26,9 +34,11 @@ import java.util.*;
 @Tag(name = "Tags", description = "Tag management APIs for managing blog post tags and categories. Tags can be used to categorize and organize posts for better discoverability.")
 public class RestTagController {
     private final TagService tagService;
+    private final TagStatisticsService tagStatistics;
     
-    public RestTagController(TagService tagService) {
+    public RestTagController(TagService tagService, TagStatisticsService tagStatistics) {
         this.tagService = tagService;
+        this.tagStatistics = tagStatistics;
     }
     @GetMapping
     @Operation(
@@ -40,10 +50,90 @@ public class RestTagController {
             responseCode = "200",
             description = "Tags retrieved successfully",
             content = @Content(schema = @Schema(implementation = SuccessResponse.class))
+        ),
+        @ApiResponse(
+            responseCode = "304",
+            description = "Tags unchanged since the version identified by If-None-Match",
+            content = @Content
+        )
+    })
+    public ResponseEntity<SuccessResponse<Page<ResponseTagsDTO>>> findAll(Pageable pageable, WebRequest request) {
+        Page<PostTags> tags = tagService.findAll(pageable);
+        if (request.checkNotModified(EntityTag.of("tags").add(tags.getContent()).add(tags.getTotalElements()).toString())) return null;
+        return ResponseEntity.status(HttpStatus.OK).body(new SuccessResponse<>(HttpStatus.OK, "Tags retrieved successfully", tags.map(ResponseTagsDTO::new))) ;
+    }
+    @GetMapping(params = "slice=true")
+    @Operation(
+        summary = "Get all tags without a total",
+        description = "Same pages as the plain listing, but the response only says whether another page follows instead of carrying totalElements and totalPages, which saves a count per request."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Tags retrieved successfully",
+            content = @Content(schema = @Schema(implementation = SuccessResponse.class))
+        ),
+        @ApiResponse(
+            responseCode = "304",
+            description = "Tags unchanged since the version identified by If-None-Match",
+            content = @Content
+        )
+    })
+    public ResponseEntity<SuccessResponse<Slice<ResponseTagsDTO>>> findSlice(Pageable pageable, WebRequest request) {
+        Slice<PostTags> tags = tagService.findSlice(pageable);
+        if (request.checkNotModified(EntityTag.of("tag-slice").add(tags.getContent()).add(tags.hasNext()).toString())) return null;
+        return ResponseEntity.status(HttpStatus.OK).body(new SuccessResponse<>(HttpStatus.OK, "Tags retrieved successfully", tags.map(ResponseTagsDTO::new)));
+    }
+    @GetMapping("/popular")
+    @Operation(
+        summary = "Get the most used tags",
+        description = "Returns tags with the number of posts carrying each, most used first, for tag clouds and tag autocompletion. Counts are kept in memory and may briefly lag writes made through other instances."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Tag counts retrieved successfully",
+            content = @Content(schema = @Schema(implementation = SuccessResponse.class))
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Invalid limit - must be between 1 and 500",
+            content = @Content(schema = @Schema(implementation = String.class))
+        )
+    })
+    public ResponseEntity<SuccessResponse<List<TagCountDTO>>> findPopular(
+        @Parameter(description = "Maximum number of tags to return", example = "50")
+        @RequestParam(defaultValue = "50") @Min(1) @Max(500) int limit,
+        @Parameter(description = "Only return tags starting with this prefix", example = "spr")
+        @RequestParam(required = false) String prefix
+    ) {
+        List<TagCountDTO> counts = prefix == null ? tagStatistics.mostUsed(limit) : tagStatistics.mostUsedWithPrefix(prefix, limit);
+        return ResponseEntity.status(HttpStatus.OK).body(new SuccessResponse<>(HttpStatus.OK, "Tag counts retrieved successfully", counts));
+    }
+    @GetMapping("/suggest")
+    @Operation(
+        summary = "Suggest tags",
+        description = "Completes a tag prefix, ignoring case, with the most used matching tags first. Meant to be called on every keystroke; answered from memory without touching the database."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Tag suggestions retrieved successfully",
+            content = @Content(schema = @Schema(implementation = SuccessResponse.class))
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Invalid limit - must be between 1 and " + TagTrie.MAX_COMPLETIONS,
+            content = @Content(schema = @Schema(implementation = String.class))
         )
     })
-    public ResponseEntity<SuccessResponse<Page<ResponseTagsDTO>>> findAll(Pageable pageable) {
-        return ResponseEntity.status(HttpStatus.OK).body(new SuccessResponse<>(HttpStatus.OK, "Tags retrieved successfully", tagService.findAll(pageable).map(ResponseTagsDTO::new))) ;
+    public ResponseEntity<SuccessResponse<List<TagCountDTO>>> suggest(
+        @Parameter(description = "What the user has typed so far", required = true, example = "spr")
+        @RequestParam String q,
+        @Parameter(description = "Maximum number of suggestions", example = "10")
+        @RequestParam(defaultValue = "" + TagTrie.MAX_COMPLETIONS) @Min(1) @Max(TagTrie.MAX_COMPLETIONS) int limit
+    ) {
+        return ResponseEntity.status(HttpStatus.OK).body(new SuccessResponse<>(HttpStatus.OK, "Tag suggestions retrieved successfully", tagStatistics.complete(q, limit)));
     }
     @GetMapping("/{postId}")
     @Operation(
@@ -56,6 +146,11 @@ public class RestTagController {
             description = "Tags retrieved successfully",
             content = @Content(schema = @Schema(implementation = SuccessResponse.class))
         ),
+        @ApiResponse(
+            responseCode = "304",
+            description = "Tags unchanged since the version identified by If-None-Match",
+            content = @Content
+        ),
         @ApiResponse(
             responseCode = "400",
             description = "Invalid post ID - ID must be a positive integer",
@@ -69,9 +164,12 @@ public class RestTagController {
     })
     public ResponseEntity<SuccessResponse<List<String>>> findByPostId(
         @Parameter(description = "ID of the post to retrieve tags for", required = true, example = "1")
-        @PathVariable @Min(1) Integer postId
+        @PathVariable @Min(1) Integer postId,
+        WebRequest request
     ) {
-        return ResponseEntity.status(HttpStatus.OK).body(new SuccessResponse<>(HttpStatus.OK, "Tags retrieved successfully", tagService.findByPostId(postId))) ;
+        List<String> tags = tagService.findByPostId(postId);
+        if (request.checkNotModified(EntityTag.of("post-tags").add(postId).add(tags).toString())) return null;
+        return ResponseEntity.status(HttpStatus.OK).body(new SuccessResponse<>(HttpStatus.OK, "Tags retrieved successfully", tags)) ;
     }
     @PostMapping
     @Operation(
@@ -169,7 +267,7 @@ public class RestTagController {
     @DeleteMapping("/{postId}")
     @Operation(
         summary = "Delete all tags for a post",
-        description = "Removes all tags associated with a specific post. This action is irreversible."
+        description = "Removes all tags associated with a specific post. This action is irreversible. A post without tags is left unchanged."
     )
     @ApiResponses(value = {
         @ApiResponse(
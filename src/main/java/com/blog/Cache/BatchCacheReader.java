@@ -0,0 +1,48 @@
+package com.blog.Cache;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cache.Cache;
+
+import java.util.*;
+import java.util.function.Function;
+
+// Reads many keys of a per-entity cache at once, e.g. the tags of every post in a GraphQL listing. Hits come
+// from the cache as usual; the misses go to the loader together, so a batch costs at most one query, and the
+// loaded values are filled in for the single-key readers. A fill is a read, not a write, so it is neither
+// tracked nor broadcast. Keys the loader has nothing for get the absent value.
+public class BatchCacheReader<K, V> {
+    private final Cache cache;
+    private final V absent;
+    private final DistributionSummary requested;
+    private final DistributionSummary loaded;
+
+    public BatchCacheReader(Cache cache, V absent, MeterRegistry registry) {
+        this.cache = cache;
+        this.absent = absent;
+        this.requested = DistributionSummary.builder("blog.cache.batch.keys").tag("cache", cache.getName()).description("Keys per batched read").register(registry);
+        // Its count is the number of queries the batches issued, its total the single-key queries they replaced
+        this.loaded = DistributionSummary.builder("blog.cache.batch.loaded").tag("cache", cache.getName()).description("Keys per batched read that missed the cache and were loaded in one query").register(registry);
+    }
+
+    @SuppressWarnings("unchecked")
+    public Map<K, V> get(Collection<K> keys, Function<List<K>, Map<K, V>> loader) {
+        Map<K, V> result = new HashMap<>();
+        List<K> missing = new ArrayList<>();
+        for (K key : new LinkedHashSet<>(keys)) {
+            Cache.ValueWrapper cached = cache.get(key);
+            if (cached == null) missing.add(key);
+            else result.put(key, (V) cached.get());
+        }
+        requested.record(result.size() + missing.size());
+        if (missing.isEmpty()) return result;
+        loaded.record(missing.size());
+        Map<K, V> found = loader.apply(missing);
+        for (K key : missing) {
+            V value = found.getOrDefault(key, absent);
+            CacheDecorator.fill(cache, key, value);
+            result.put(key, value);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,137 @@
+package com.blog.Cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.lang.Nullable;
+
+import java.lang.ref.Cleaner;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+// Fixed-size chunks carved out of one direct buffer. Text is stored as UTF-8, deflated when that helps,
+// and spread over as many chunks as it needs. Chunks go back to the free list once the Handle that owns
+// them is garbage collected, so a reader still holding a cached object can never see its bytes reused.
+public class BodySlab {
+    private final ByteBuffer buffer;
+    private final int chunkSize;
+    private final int[] freeChunks;
+    private int freeCount;
+    private final boolean compress;
+    private final Cleaner cleaner = Cleaner.create();
+    private final AtomicLong heapSaved = new AtomicLong();
+    private final Timer decodes;
+    private final Counter rejected;
+
+    public BodySlab(long capacity, int chunkSize, boolean compress, MeterRegistry registry) {
+        if (capacity > Integer.MAX_VALUE) throw new IllegalArgumentException("Off-heap slab capacity must be below 2GB: " + capacity);
+        this.chunkSize = chunkSize;
+        this.compress = compress;
+        this.buffer = ByteBuffer.allocateDirect((int) (capacity - capacity % chunkSize));
+        this.freeChunks = new int[buffer.capacity() / chunkSize];
+        for (int chunk = 0; chunk < freeChunks.length; chunk++) freeChunks[chunk] = freeChunks.length - 1 - chunk;
+        this.freeCount = freeChunks.length;
+        Gauge.builder("blog.cache.offheap.used", this, slab -> (double) slab.usedChunks() * slab.chunkSize).baseUnit("bytes").description("Off-heap slab bytes holding cached bodies").register(registry);
+        Gauge.builder("blog.cache.offheap.heap.saved", heapSaved, AtomicLong::get).baseUnit("bytes").description("Estimated heap the off-heap bodies would otherwise occupy").register(registry);
+        this.decodes = Timer.builder("blog.cache.offheap.decode").description("Time spent copying a body back onto the heap").register(registry);
+        this.rejected = Counter.builder("blog.cache.offheap.rejected").description("Bodies kept on the heap because the slab was full").register(registry);
+    }
+
+    // Returns null when the slab has no room; the caller keeps the value on the heap
+    @Nullable
+    public Handle store(String text) {
+        byte[] encoded = text.getBytes(StandardCharsets.UTF_8);
+        byte[] bytes = compress ? deflate(encoded) : encoded;
+        boolean compressed = bytes != encoded;
+        int[] chunks = allocate((bytes.length + chunkSize - 1) / chunkSize);
+        if (chunks == null) {
+            rejected.increment();
+            return null;
+        }
+        for (int i = 0; i < chunks.length; i++) {
+            int offset = i * chunkSize;
+            buffer.put(chunks[i] * chunkSize, bytes, offset, Math.min(chunkSize, bytes.length - offset));
+        }
+        // Strings made of Latin-1 characters take one heap byte per char, everything else two
+        long heapBytes = encoded.length == text.length() ? text.length() : 2L * text.length();
+        heapSaved.addAndGet(heapBytes);
+        Handle handle = new Handle(chunks, bytes.length, compressed ? encoded.length : -1);
+        cleaner.register(handle, () -> {
+            heapSaved.addAndGet(-heapBytes);
+            release(chunks);
+        });
+        return handle;
+    }
+    public String load(Handle handle) {
+        long started = System.nanoTime();
+        byte[] bytes = new byte[handle.length];
+        for (int i = 0; i < handle.chunks.length; i++) {
+            int offset = i * chunkSize;
+            buffer.get(handle.chunks[i] * chunkSize, bytes, offset, Math.min(chunkSize, handle.length - offset));
+        }
+        String text = new String(handle.inflatedLength < 0 ? bytes : inflate(bytes, handle.inflatedLength), StandardCharsets.UTF_8);
+        decodes.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        return text;
+    }
+
+    private synchronized int usedChunks() {
+        return freeChunks.length - freeCount;
+    }
+    @Nullable
+    private synchronized int[] allocate(int count) {
+        if (count > freeCount) return null;
+        int[] chunks = new int[count];
+        for (int i = 0; i < count; i++) chunks[i] = freeChunks[--freeCount];
+        return chunks;
+    }
+    private synchronized void release(int[] chunks) {
+        for (int chunk : chunks) freeChunks[freeCount++] = chunk;
+    }
+    private byte[] deflate(byte[] bytes) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(bytes);
+            deflater.finish();
+            byte[] output = new byte[bytes.length];
+            int length = deflater.deflate(output);
+            // Incompressible text is stored as is
+            if (!deflater.finished() || length >= bytes.length) return bytes;
+            byte[] compressed = new byte[length];
+            System.arraycopy(output, 0, compressed, 0, length);
+            return compressed;
+        } finally {
+            deflater.end();
+        }
+    }
+    private byte[] inflate(byte[] bytes, int length) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(bytes);
+            byte[] output = new byte[length];
+            inflater.inflate(output);
+            return output;
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupt off-heap cache entry", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    public static final class Handle {
+        private final int[] chunks;
+        private final int length;
+        private final int inflatedLength;
+
+        private Handle(int[] chunks, int length, int inflatedLength) {
+            this.chunks = chunks;
+            this.length = length;
+            this.inflatedLength = inflatedLength;
+        }
+    }
+}
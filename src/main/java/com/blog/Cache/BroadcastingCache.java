@@ -0,0 +1,79 @@
+package com.blog.Cache;
+
+import com.blog.Utility.TransactionCallbacks;
+import org.springframework.cache.Cache;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+
+// Outermost layer on caches shared across instances. Writes go to the local chain and are announced to
+// peers once the surrounding transaction commits; peers evict rather than copy a put, since their next
+// read reloads it from the database. Loads through get(key, loader) fill the local cache only. Element writes
+// to paged caches are announced whether or not this node had the affected pages cached, since peers may.
+public class BroadcastingCache extends CacheDecorator {
+    private final CacheInvalidationBus bus;
+
+    public BroadcastingCache(Cache delegate, CacheInvalidationBus bus) {
+        super(delegate);
+        this.bus = bus;
+        bus.register(this);
+    }
+
+    @Override
+    public void put(@NonNull Object key, @Nullable Object value) {
+        delegate.put(key, value);
+        announce(key);
+    }
+    @Override
+    protected void fill(Object key, @Nullable Object value) {
+        fill(delegate, key, value);
+    }
+    @Override
+    public void evict(@NonNull Object key) {
+        delegate.evict(key);
+        announce(key);
+    }
+    @Override
+    public boolean evictIfPresent(@NonNull Object key) {
+        boolean present = delegate.evictIfPresent(key);
+        // Peers may hold the key even when this node doesn't
+        announce(key);
+        return present;
+    }
+    @Override
+    public void clear() {
+        delegate.clear();
+        announce(null);
+    }
+    @Override
+    public boolean invalidate() {
+        boolean present = delegate.invalidate();
+        announce(null);
+        return present;
+    }
+
+    // An element write reported to the PagedCache below this layer. Peers can't tell which of their own pages
+    // the element falls into without the element itself, so they drop every page of the cache
+    public void pagesChanged() {
+        announce(null);
+    }
+    // An element write reported to the KeysetPagedCache below this layer; peers drop the group's pages
+    public void groupChanged(Object group) {
+        TransactionCallbacks.afterCommit(() -> bus.publishGroup(getName(), group));
+    }
+    void evictLocally(Object key) {
+        delegate.evict(key);
+    }
+    void evictGroupLocally(Object group) {
+        Cache cache = delegate;
+        while (cache instanceof CacheDecorator decorator && !(cache instanceof KeysetPagedCache)) cache = decorator.getDelegate();
+        if (cache instanceof KeysetPagedCache keyset) keyset.dropGroup(group);
+        else delegate.clear();
+    }
+    void clearLocally() {
+        delegate.clear();
+    }
+
+    private void announce(@Nullable Object key) {
+        TransactionCallbacks.afterCommit(() -> bus.publish(getName(), key));
+    }
+}
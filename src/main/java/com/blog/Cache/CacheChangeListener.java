@@ -0,0 +1,7 @@
+package com.blog.Cache;
+
+// Notified by TrackingCache whenever an entry is written or evicted, locally or on behalf of a peer
+public interface CacheChangeListener {
+    void changed(String cacheName, Object key);
+    void cleared(String cacheName);
+}
@@ -0,0 +1,104 @@
+package com.blog.Cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+public abstract class CacheDecorator implements Cache {
+    protected final Cache delegate;
+
+    protected CacheDecorator(Cache delegate) {
+        this.delegate = delegate;
+    }
+    public static <C extends Cache> C find(CacheManager cacheManager, String name, Class<C> type) {
+        Cache cache = Objects.requireNonNull(cacheManager.getCache(name), "Unknown cache: " + name);
+        while (!type.isInstance(cache)) {
+            if (!(cache instanceof CacheDecorator decorator)) throw new IllegalStateException("Cache " + name + " has no " + type.getSimpleName() + " layer");
+            cache = decorator.getDelegate();
+        }
+        return type.cast(cache);
+    }
+    public Cache getDelegate() {
+        return delegate;
+    }
+    // Stores a value loaded from the database rather than written by the application, the way loads through
+    // get(key, loader) do: layers that report or announce writes pass it down without doing so
+    public static void fill(Cache cache, Object key, @Nullable Object value) {
+        if (cache instanceof CacheDecorator decorator) decorator.fill(key, value);
+        else cache.put(key, value);
+    }
+    protected void fill(Object key, @Nullable Object value) {
+        put(key, value);
+    }
+    public Cache getTargetCache() {
+        Cache cache = delegate;
+        while (cache instanceof CacheDecorator decorator) cache = decorator.getDelegate();
+        return cache;
+    }
+    @Override
+    @NonNull
+    public String getName() {
+        return delegate.getName();
+    }
+    @Override
+    @NonNull
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+    @Override
+    @Nullable
+    public ValueWrapper get(@NonNull Object key) {
+        return delegate.get(key);
+    }
+    @Override
+    @Nullable
+    public <T> T get(@NonNull Object key, @Nullable Class<T> type) {
+        return delegate.get(key, type);
+    }
+    @Override
+    @Nullable
+    public <T> T get(@NonNull Object key, @NonNull Callable<T> valueLoader) {
+        return delegate.get(key, valueLoader);
+    }
+    @Override
+    @Nullable
+    public CompletableFuture<?> retrieve(@NonNull Object key) {
+        return delegate.retrieve(key);
+    }
+    @Override
+    @NonNull
+    public <T> CompletableFuture<T> retrieve(@NonNull Object key, @NonNull Supplier<CompletableFuture<T>> valueLoader) {
+        return delegate.retrieve(key, valueLoader);
+    }
+    @Override
+    public void put(@NonNull Object key, @Nullable Object value) {
+        delegate.put(key, value);
+    }
+    @Override
+    @Nullable
+    public ValueWrapper putIfAbsent(@NonNull Object key, @Nullable Object value) {
+        return delegate.putIfAbsent(key, value);
+    }
+    @Override
+    public void evict(@NonNull Object key) {
+        delegate.evict(key);
+    }
+    @Override
+    public boolean evictIfPresent(@NonNull Object key) {
+        return delegate.evictIfPresent(key);
+    }
+    @Override
+    public void clear() {
+        delegate.clear();
+    }
+    @Override
+    public boolean invalidate() {
+        return delegate.invalidate();
+    }
+}
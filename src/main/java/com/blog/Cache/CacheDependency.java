@@ -0,0 +1,3 @@
+package com.blog.Cache;
+
+public record CacheDependency(String cacheName, Object key) { }
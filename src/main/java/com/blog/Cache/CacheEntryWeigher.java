@@ -0,0 +1,50 @@
+package com.blog.Cache;
+
+import com.blog.DataTransporter.Post.PostSearchResult;
+import com.blog.DataTransporter.Post.PostSummary;
+import com.blog.Model.Comment;
+import com.blog.Model.Post;
+import com.blog.Model.PostTags;
+import com.blog.Utility.CursorPage;
+import com.github.benmanes.caffeine.cache.Weigher;
+import org.springframework.data.domain.Slice;
+import org.springframework.lang.NonNull;
+
+import java.util.Collection;
+
+public class CacheEntryWeigher implements Weigher<Object, Object> {
+    private static final int ENTRY_OVERHEAD = 16;
+
+    @Override
+    public int weigh(@NonNull Object key, @NonNull Object value) {
+        return (int) Math.min(Integer.MAX_VALUE, Math.max(1, weightOf(value)));
+    }
+
+    public static long weightOf(Object value) {
+        return switch (value) {
+            case null -> 1;
+            // Only the heap-resident header counts; the body is accounted for by the slab
+            case OffHeapPost post -> 2 * ENTRY_OVERHEAD + length(post.getTitle());
+            case OffHeapComment comment -> 2 * ENTRY_OVERHEAD;
+            case Post post -> ENTRY_OVERHEAD + length(post.getTitle()) + length(post.getBody());
+            case Comment comment -> ENTRY_OVERHEAD + length(comment.getBody());
+            case PostSummary summary -> ENTRY_OVERHEAD + length(summary.title()) + length(summary.excerpt());
+            case PostSearchResult result -> ENTRY_OVERHEAD + length(result.title()) + length(result.snippet());
+            case PostTags postTags -> ENTRY_OVERHEAD + weightOf(postTags.getTags());
+            case CharSequence text -> text.length();
+            case Slice<?> slice -> ENTRY_OVERHEAD + sum(slice.getContent());
+            case CursorPage<?> page -> ENTRY_OVERHEAD + sum(page.items());
+            case Collection<?> collection -> ENTRY_OVERHEAD + sum(collection);
+            default -> ENTRY_OVERHEAD;
+        };
+    }
+
+    private static long sum(Collection<?> values) {
+        long weight = 0;
+        for (Object value : values) weight += weightOf(value);
+        return weight;
+    }
+    private static int length(String text) {
+        return text == null ? 0 : text.length();
+    }
+}
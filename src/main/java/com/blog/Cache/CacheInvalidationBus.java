@@ -0,0 +1,241 @@
+package com.blog.Cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.lang.Nullable;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+// Broadcasts cache invalidations to the other instances over Postgres LISTEN/NOTIFY. Local writes are
+// queued and flushed in batches, so a burst of evictions costs one NOTIFY per batch window rather than
+// one per key. Every node ignores its own messages; if the listening connection drops, the broadcast
+// caches are cleared on reconnect since any invalidations sent in the meantime are lost. State outside the
+// caches that follows the same writes, like the in-process search index, hears about them through onPeerChange.
+public class CacheInvalidationBus implements SmartLifecycle {
+    private static final Logger logger = LoggerFactory.getLogger(CacheInvalidationBus.class);
+    private static final Pattern CHANNEL = Pattern.compile("[a-z_][a-z0-9_]*");
+    // Postgres rejects NOTIFY payloads of 8000 bytes or more
+    private static final int MAX_PAYLOAD_BYTES = 7500;
+
+    private final DataSource dataSource;
+    private final String channel;
+    private final Duration batchWindow;
+    private final Duration reconnectDelay;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, BroadcastingCache> caches = new ConcurrentHashMap<>();
+    private final Map<String, List<Consumer<Object>>> handlers = new ConcurrentHashMap<>();
+    private final LinkedBlockingQueue<Event> outbox = new LinkedBlockingQueue<>();
+    private final Counter published;
+    private final Counter received;
+    private final Counter dropped;
+    private final DistributionSummary batchSize;
+    private final Timer lag;
+    private volatile boolean running;
+    private Thread publisher;
+    private Thread listener;
+
+    public CacheInvalidationBus(DataSource dataSource, String channel, Duration batchWindow, Duration reconnectDelay, MeterRegistry registry) {
+        if (!CHANNEL.matcher(channel).matches()) throw new IllegalArgumentException("Invalid notification channel name: " + channel);
+        this.dataSource = dataSource;
+        this.channel = channel;
+        this.batchWindow = batchWindow;
+        this.reconnectDelay = reconnectDelay;
+        this.published = Counter.builder("blog.cache.invalidation.published").description("Invalidations sent to peer instances").register(registry);
+        this.received = Counter.builder("blog.cache.invalidation.received").description("Invalidations applied on behalf of peer instances").register(registry);
+        this.dropped = Counter.builder("blog.cache.invalidation.dropped").description("Invalidation batches that could not be sent").register(registry);
+        this.batchSize = DistributionSummary.builder("blog.cache.invalidation.batch.size").description("Invalidations per NOTIFY").register(registry);
+        this.lag = Timer.builder("blog.cache.invalidation.lag").description("Time from a batch being sent to it being applied on a peer").publishPercentiles(0.5, 0.99).register(registry);
+    }
+
+    void register(BroadcastingCache cache) {
+        caches.put(cache.getName(), cache);
+    }
+    // Runs the handler on the listener thread for every write a peer announces to the cache, with the key, or
+    // with null when the peer cleared it or when announcements may have been lost while the channel was down
+    public void onPeerChange(String cacheName, Consumer<Object> handler) {
+        handlers.computeIfAbsent(cacheName, name -> new CopyOnWriteArrayList<>()).add(handler);
+    }
+    // A null key means the whole cache
+    void publish(String cacheName, @Nullable Object key) {
+        String encoded = key == null ? null : CacheKeyCodec.encode(key);
+        outbox.add(new Event(cacheName, encoded, encoded == null, false));
+    }
+    void publishGroup(String cacheName, Object group) {
+        String encoded = CacheKeyCodec.encode(group);
+        outbox.add(new Event(cacheName, encoded, encoded == null, encoded != null));
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        publisher = Thread.ofPlatform().daemon().name("cache-bus-publisher").start(this::runPublisher);
+        listener = Thread.ofPlatform().daemon().name("cache-bus-listener").start(this::runListener);
+    }
+    @Override
+    public void stop() {
+        running = false;
+        publisher.interrupt();
+        listener.interrupt();
+    }
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void runPublisher() {
+        while (running) {
+            try {
+                List<Event> events = new ArrayList<>();
+                events.add(outbox.take());
+                TimeUnit.NANOSECONDS.sleep(batchWindow.toNanos());
+                flush(events);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+    void flush() {
+        flush(new ArrayList<>());
+    }
+    private void flush(List<Event> events) {
+        outbox.drainTo(events);
+        if (!events.isEmpty()) send(coalesce(events));
+    }
+    void send(List<Event> events) {
+        try (Connection connection = dataSource.getConnection(); PreparedStatement statement = connection.prepareStatement("SELECT pg_notify(?, ?)")) {
+            for (List<Event> chunk : chunk(events)) {
+                statement.setString(1, channel);
+                statement.setString(2, objectMapper.writeValueAsString(new Batch(nodeId, System.currentTimeMillis(), chunk)));
+                statement.execute();
+                published.increment(chunk.size());
+                batchSize.record(chunk.size());
+            }
+        } catch (SQLException | JsonProcessingException | RuntimeException e) {
+            dropped.increment();
+            logger.warn("Failed to broadcast {} cache invalidations: {}", events.size(), e.getMessage());
+        }
+    }
+    // Drops duplicate keys, and every key of a cache that is being cleared anyway
+    private List<Event> coalesce(List<Event> events) {
+        Set<String> cleared = new HashSet<>();
+        for (Event event : events) if (event.clear()) cleared.add(event.cache());
+        Set<Event> unique = new LinkedHashSet<>();
+        for (Event event : events) {
+            if (event.clear() || !cleared.contains(event.cache())) unique.add(event);
+        }
+        return List.copyOf(unique);
+    }
+    private List<List<Event>> chunk(List<Event> events) {
+        List<List<Event>> chunks = new ArrayList<>();
+        List<Event> current = new ArrayList<>();
+        int bytes = 0;
+        for (Event event : events) {
+            // A key too large for a notification on its own is sent as a clear of its cache instead
+            if (sizeOf(event) > MAX_PAYLOAD_BYTES) event = new Event(event.cache(), null, true, false);
+            if (!current.isEmpty() && bytes + sizeOf(event) > MAX_PAYLOAD_BYTES) {
+                chunks.add(current);
+                current = new ArrayList<>();
+                bytes = 0;
+            }
+            current.add(event);
+            bytes += sizeOf(event);
+        }
+        if (!current.isEmpty()) chunks.add(current);
+        return chunks;
+    }
+    private int sizeOf(Event event) {
+        // Upper bound on the event's JSON form, leaving room for the batch envelope and escaping
+        int keyBytes = event.key() == null ? 0 : event.key().getBytes(StandardCharsets.UTF_8).length * 6;
+        return 48 + event.cache().length() + keyBytes;
+    }
+
+    private void runListener() {
+        boolean reconnecting = false;
+        while (running) {
+            try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+                statement.execute("LISTEN " + channel);
+                if (reconnecting) {
+                    logger.info("Reconnected to cache invalidation channel {}, clearing broadcast caches", channel);
+                    caches.values().forEach(BroadcastingCache::clearLocally);
+                    handlers.keySet().forEach(cacheName -> peerChanged(cacheName, null));
+                }
+                reconnecting = true;
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications((int) reconnectDelay.toMillis());
+                    if (notifications == null) continue;
+                    for (PGNotification notification : notifications) receive(notification.getParameter());
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (!running) return;
+                logger.warn("Lost cache invalidation channel {}: {}", channel, e.getMessage());
+                try {
+                    TimeUnit.MILLISECONDS.sleep(reconnectDelay.toMillis());
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+    void receive(String payload) {
+        Batch batch;
+        try {
+            batch = objectMapper.readValue(payload, Batch.class);
+        } catch (JsonProcessingException e) {
+            logger.warn("Ignoring malformed cache invalidation: {}", e.getMessage());
+            return;
+        }
+        if (nodeId.equals(batch.node())) return;
+        for (Event event : batch.events()) {
+            Object key = event.clear() || event.key() == null ? null : CacheKeyCodec.decode(event.key());
+            BroadcastingCache cache = caches.get(event.cache());
+            if (cache != null) {
+                if (key == null) cache.clearLocally();
+                else if (event.group()) cache.evictGroupLocally(key);
+                else cache.evictLocally(key);
+                received.increment();
+            }
+            peerChanged(event.cache(), key);
+        }
+        lag.record(Math.max(0, System.currentTimeMillis() - batch.sentAt()), TimeUnit.MILLISECONDS);
+    }
+    private void peerChanged(String cacheName, @Nullable Object key) {
+        for (Consumer<Object> handler : handlers.getOrDefault(cacheName, List.of())) {
+            // A failing handler must not take the listening connection down with it
+            try {
+                handler.accept(key);
+            } catch (RuntimeException e) {
+                logger.warn("Failed to apply peer change to {}: {}", cacheName, e.getMessage());
+            }
+        }
+    }
+
+    // A group event names a group of a keyset paged cache rather than a key
+    record Event(String cache, @Nullable String key, boolean clear, boolean group) { }
+    record Batch(String node, long sentAt, List<Event> events) { }
+}
@@ -0,0 +1,90 @@
+package com.blog.Cache;
+
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.data.domain.Sort;
+import org.springframework.lang.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Turns the cache keys this application produces into strings that can cross the wire and back into
+// keys that are equal() to the originals. Keys it can't represent encode to null; callers fall back to
+// clearing the whole cache on the receiving side.
+public final class CacheKeyCodec {
+    private static final String PART_SEPARATOR = "\u001F";
+
+    private CacheKeyCodec() { }
+
+    @Nullable
+    public static String encode(Object key) {
+        return switch (key) {
+            case Integer value -> "i:" + value;
+            case Long value -> "l:" + value;
+            case String value -> value.contains(PART_SEPARATOR) ? null : "s:" + value;
+            case SimpleKey simpleKey when simpleKey.equals(SimpleKey.EMPTY) -> "e:";
+            case Sort sort -> encodeSort(sort);
+            case List<?> parts -> encodeList(parts);
+            default -> null;
+        };
+    }
+    @Nullable
+    public static Object decode(String encoded) {
+        if (encoded.length() < 2 || encoded.charAt(1) != ':') return null;
+        String body = encoded.substring(2);
+        try {
+            return switch (encoded.charAt(0)) {
+                case 'i' -> Integer.valueOf(body);
+                case 'l' -> Long.valueOf(body);
+                case 's' -> body;
+                case 'e' -> SimpleKey.EMPTY;
+                case 'o' -> decodeSort(body);
+                case 'p' -> decodeList(body);
+                default -> null;
+            };
+        } catch (RuntimeException e) {
+            // Malformed input from a peer running a different build
+            return null;
+        }
+    }
+
+    @Nullable
+    private static String encodeList(List<?> parts) {
+        List<String> encoded = new ArrayList<>(parts.size());
+        for (Object part : parts) {
+            String value = part == null ? null : encode(part);
+            if (value == null || value.startsWith("p:")) return null;
+            encoded.add(value);
+        }
+        return "p:" + String.join(PART_SEPARATOR, encoded);
+    }
+    @Nullable
+    private static List<Object> decodeList(String body) {
+        List<Object> parts = new ArrayList<>();
+        if (body.isEmpty()) return parts;
+        for (String part : body.split(PART_SEPARATOR, -1)) {
+            Object value = decode(part);
+            if (value == null) return null;
+            parts.add(value);
+        }
+        return parts;
+    }
+    @Nullable
+    private static String encodeSort(Sort sort) {
+        List<String> orders = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            if (order.isIgnoreCase() || order.getNullHandling() != Sort.NullHandling.NATIVE) return null;
+            if (order.getProperty().contains(":") || order.getProperty().contains(";")) return null;
+            orders.add(order.getProperty() + ":" + order.getDirection().name());
+        }
+        return "o:" + String.join(";", orders);
+    }
+    private static Sort decodeSort(String body) {
+        if (body.isEmpty()) return Sort.unsorted();
+        List<Sort.Order> orders = new ArrayList<>();
+        for (String order : body.split(";")) {
+            int separator = order.lastIndexOf(':');
+            orders.add(new Sort.Order(Sort.Direction.valueOf(order.substring(separator + 1)), order.substring(0, separator)));
+        }
+        return Sort.by(orders);
+    }
+}
@@ -0,0 +1,24 @@
+package com.blog.Cache;
+
+import java.util.HashSet;
+import java.util.Set;
+
+// Collects the service cache entries read on the current thread while a response is being built
+public final class CacheReadRecorder {
+    private static final ThreadLocal<Set<CacheDependency>> reads = new ThreadLocal<>();
+
+    private CacheReadRecorder() { }
+
+    public static void start() {
+        reads.set(new HashSet<>());
+    }
+    public static Set<CacheDependency> stop() {
+        Set<CacheDependency> recorded = reads.get();
+        reads.remove();
+        return recorded == null ? Set.of() : recorded;
+    }
+    static void record(String cacheName, Object key) {
+        Set<CacheDependency> recorded = reads.get();
+        if (recorded != null) recorded.add(new CacheDependency(cacheName, key));
+    }
+}
@@ -0,0 +1,98 @@
+package com.blog.Cache;
+
+import com.blog.Config.CacheProperties;
+import com.blog.Repository.PostRepository;
+import com.blog.Service.CommentService;
+import com.blog.Service.PostService;
+import com.blog.Service.TagService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Runs before ApplicationReadyEvent, so the readiness probe keeps reporting REFUSING_TRAFFIC until the
+// caches are warm or the budget runs out. Everything goes through the services so the cache keys match
+// the ones the REST and GraphQL endpoints produce.
+@Component
+@ConditionalOnProperty(prefix = "blog.cache.warm-up", name = "enabled", havingValue = "true")
+public class CacheWarmer implements ApplicationRunner {
+    private static final Logger logger = LoggerFactory.getLogger(CacheWarmer.class);
+
+    private final PostService postService;
+    private final TagService tagService;
+    private final CommentService commentService;
+    private final PostRepository postRepository;
+    private final CacheProperties.WarmUp warmUp;
+
+    public CacheWarmer(PostService postService, TagService tagService, CommentService commentService, PostRepository postRepository, CacheProperties cacheProperties) {
+        this.postService = postService;
+        this.tagService = tagService;
+        this.commentService = commentService;
+        this.postRepository = postRepository;
+        this.warmUp = cacheProperties.getWarmUp();
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws InterruptedException {
+        long started = System.nanoTime();
+        long deadline = started + warmUp.getBudget().toNanos();
+        AtomicInteger loaded = new AtomicInteger();
+        List<Callable<Void>> tasks = new ArrayList<>();
+        tasks.add(task(postService::count, loaded));
+        tasks.add(task(tagService::count, loaded));
+        for (int size : warmUp.getPageSizes()) {
+            for (String sort : warmUp.getSorts()) {
+                for (int page = 0; page < warmUp.getPages(); page++) {
+                    PageRequest pageable = PageRequest.of(page, size, parseSort(sort));
+                    tasks.add(task(() -> postService.findAll(pageable), loaded));
+                    tasks.add(task(() -> tagService.findAll(pageable), loaded));
+                    tasks.add(task(() -> postService.findSlice(pageable), loaded));
+                    tasks.add(task(() -> postService.findSummaries(pageable), loaded));
+                    tasks.add(task(() -> postService.findSummarySlice(pageable), loaded));
+                    tasks.add(task(() -> tagService.findSlice(pageable), loaded));
+                }
+            }
+        }
+        for (int id : postRepository.findRecentIds(PageRequest.of(0, warmUp.getRecentPosts()))) {
+            tasks.add(task(() -> postService.findById(id), loaded));
+            tasks.add(task(() -> tagService.findByPostId(id), loaded));
+            tasks.add(task(() -> commentService.findByPostId(id), loaded));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(warmUp.getParallelism(), Thread.ofPlatform().daemon().name("cache-warm-up-", 0).factory());
+        try {
+            // Tasks still running at the deadline are cancelled; the service starts with whatever is cached by then
+            executor.invokeAll(tasks, Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        logger.info("Cache warm-up loaded {}/{} entries in {}ms", loaded.get(), tasks.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    }
+
+    private Callable<Void> task(Runnable load, AtomicInteger loaded) {
+        return () -> {
+            try {
+                load.run();
+                loaded.incrementAndGet();
+            } catch (RuntimeException e) {
+                logger.debug("Cache warm-up entry failed: {}", e.getMessage());
+            }
+            return null;
+        };
+    }
+    private Sort parseSort(String sort) {
+        if (sort.isBlank() || sort.equalsIgnoreCase("unsorted")) return Sort.unsorted();
+        String[] parts = sort.split(":");
+        Sort.Direction direction = parts.length > 1 ? Sort.Direction.fromString(parts[1].trim()) : Sort.Direction.ASC;
+        return Sort.by(direction, parts[0].trim());
+    }
+}
@@ -0,0 +1,78 @@
+package com.blog.Cache;
+
+import com.blog.Exception.CacheLoadTimeoutException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cache.Cache;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+
+import java.time.Duration;
+import java.util.concurrent.*;
+
+public class CoalescingCache extends CacheDecorator {
+    private final ConcurrentMap<Object, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final Duration loadTimeout;
+    private final Counter coalesced;
+    private final Counter timeouts;
+
+    public CoalescingCache(Cache delegate, Duration loadTimeout, MeterRegistry registry) {
+        super(delegate);
+        this.loadTimeout = loadTimeout;
+        this.coalesced = Counter.builder("blog.cache.coalesced").tag("cache", delegate.getName()).description("Cache misses that waited on another caller's load").register(registry);
+        this.timeouts = Counter.builder("blog.cache.load.timeouts").tag("cache", delegate.getName()).description("Callers that gave up waiting on a coalesced load").register(registry);
+    }
+
+    @Override
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public <T> T get(@NonNull Object key, @NonNull Callable<T> valueLoader) {
+        ValueWrapper cached = delegate.get(key);
+        if (cached != null) return (T) cached.get();
+
+        CompletableFuture<Object> load = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, load);
+        if (existing != null) {
+            coalesced.increment();
+            return (T) await(key, existing);
+        }
+        try {
+            cached = delegate.get(key);
+            Object value = cached != null ? cached.get() : load(key, valueLoader);
+            load.complete(value);
+            return (T) value;
+        } catch (Throwable e) {
+            // Errors too, or the waiters would hang until their timeout
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, load);
+        }
+    }
+
+    private Object load(Object key, Callable<?> valueLoader) {
+        Object value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        delegate.put(key, value);
+        return value;
+    }
+    private Object await(Object key, CompletableFuture<Object> load) {
+        try {
+            return load.get(loadTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            timeouts.increment();
+            throw new CacheLoadTimeoutException("Timed out after " + loadTimeout.toMillis() + "ms waiting for " + getName() + " entry " + key);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            if (e.getCause() instanceof Error cause) throw cause;
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CacheLoadTimeoutException("Interrupted while waiting for " + getName() + " entry " + key);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.blog.Cache;
+
+import com.blog.Repository.PostRepository;
+import com.blog.Repository.TagRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+@Component
+public class CountCacheRefresher {
+    private final List<RefreshingCache> caches;
+
+    public CountCacheRefresher(CacheManager cacheManager, PostRepository postRepository, TagRepository tagRepository, MeterRegistry meterRegistry) {
+        Map<String, Supplier<?>> loaders = Map.of(
+                "Post.count", postRepository::count,
+                "PostTags.count", tagRepository::count
+        );
+        this.caches = loaders.entrySet().stream().map(entry -> {
+            RefreshingCache cache = CacheDecorator.find(cacheManager, entry.getKey(), RefreshingCache.class);
+            cache.register(SimpleKey.EMPTY, entry.getValue());
+            Gauge.builder("blog.cache.last.refresh", cache, it -> it.lastRefreshed(SimpleKey.EMPTY).map(Instant::getEpochSecond).orElse(0L))
+                    .tag("cache", cache.getName())
+                    .description("Epoch second at which the cached aggregate was last recomputed")
+                    .register(meterRegistry);
+            return cache;
+        }).toList();
+    }
+
+    @Scheduled(fixedDelayString = "${blog.cache.count-refresh-interval:60s}", initialDelayString = "${blog.cache.count-refresh-interval:60s}")
+    public void refresh() {
+        caches.forEach(RefreshingCache::refreshAll);
+    }
+}
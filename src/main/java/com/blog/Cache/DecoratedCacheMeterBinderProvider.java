@@ -0,0 +1,17 @@
+package com.blog.Cache;
+
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.boot.actuate.metrics.cache.CacheMeterBinderProvider;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+public class DecoratedCacheMeterBinderProvider implements CacheMeterBinderProvider<CacheDecorator> {
+    @Override
+    public MeterBinder getMeterBinder(CacheDecorator cache, Iterable<Tag> tags) {
+        if (cache.getTargetCache() instanceof CaffeineCache caffeineCache) {
+            return new CaffeineCacheMetrics<>(caffeineCache.getNativeCache(), cache.getName(), tags);
+        }
+        return null;
+    }
+}
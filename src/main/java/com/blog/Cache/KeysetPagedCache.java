@@ -0,0 +1,142 @@
+package com.blog.Cache;
+
+import com.blog.Utility.CursorPage;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+// Cursor pages keyed [group, cursor, size], e.g. the comments of one post read forward from a cursor. A
+// keyset page is anchored at its cursor rather than at an offset, so a write only changes the pages whose
+// range covers the written element: appending to a long thread drops its tail page and nothing else.
+public class KeysetPagedCache extends CacheDecorator {
+    private final Function<Object, Comparable<Object>> positionOfElement;
+    private final Function<String, Comparable<Object>> positionOfCursor;
+    private final Map<Object, CursorPage<?>> pages = new HashMap<>();
+    private final Map<Object, Set<Object>> keysByGroup = new HashMap<>();
+    private final List<Consumer<Object>> listeners = new CopyOnWriteArrayList<>();
+    private final List<Consumer<Object>> groupListeners = new CopyOnWriteArrayList<>();
+
+    @SuppressWarnings("unchecked")
+    public <P extends Comparable<? super P>> KeysetPagedCache(Cache delegate, Function<Object, P> positionOfElement, Function<String, P> positionOfCursor) {
+        super(delegate);
+        this.positionOfElement = element -> (Comparable<Object>) positionOfElement.apply(element);
+        this.positionOfCursor = cursor -> (Comparable<Object>) positionOfCursor.apply(cursor);
+    }
+    public static KeysetPagedCache from(CacheManager cacheManager, String name) {
+        return find(cacheManager, name, KeysetPagedCache.class);
+    }
+    // Notified with the key of every page that changed or evictGroup drops
+    public void subscribe(Consumer<Object> listener) {
+        listeners.add(listener);
+    }
+    // Notified with the group of every changed/evictGroup, including groups none of this node's pages belong to
+    public void subscribeGroups(Consumer<Object> listener) {
+        groupListeners.add(listener);
+    }
+
+    @Override
+    public synchronized void put(@NonNull Object key, @Nullable Object value) {
+        delegate.put(key, value);
+        unindex(key);
+        if (value instanceof CursorPage<?> page) index(key, page);
+    }
+    @Override
+    @Nullable
+    public synchronized ValueWrapper putIfAbsent(@NonNull Object key, @Nullable Object value) {
+        ValueWrapper existing = delegate.putIfAbsent(key, value);
+        if (existing == null && value instanceof CursorPage<?> page) {
+            unindex(key);
+            index(key, page);
+        }
+        return existing;
+    }
+    @Override
+    public synchronized void evict(@NonNull Object key) {
+        delegate.evict(key);
+        unindex(key);
+    }
+    @Override
+    public synchronized boolean evictIfPresent(@NonNull Object key) {
+        unindex(key);
+        return delegate.evictIfPresent(key);
+    }
+    @Override
+    public synchronized void clear() {
+        delegate.clear();
+        pages.clear();
+        keysByGroup.clear();
+    }
+    @Override
+    public synchronized boolean invalidate() {
+        pages.clear();
+        keysByGroup.clear();
+        return delegate.invalidate();
+    }
+
+    // Called for size/expiry evictions inside the native cache, which bypass this decorator
+    public synchronized void evicted(Object key, Object value) {
+        if (pages.get(key) == value) unindex(key);
+    }
+
+    // For an element added to, edited in or removed from the group
+    public synchronized void changed(Object group, Object element) {
+        groupListeners.forEach(listener -> listener.accept(group));
+        Comparable<Object> position = positionOfElement.apply(element);
+        Set<Object> keys = keysByGroup.get(group);
+        if (keys == null) return;
+        Map<Object, Object> closestBefore = new HashMap<>();
+        for (Object key : List.copyOf(keys)) {
+            CursorPage<?> page = pages.get(key);
+            Comparable<Object> from = cursorOf(key);
+            if (from != null && position.compareTo(from) <= 0) continue;
+            if (!page.hasNext() || page.items().isEmpty() || position.compareTo(lastOf(page)) <= 0) {
+                drop(key);
+            } else {
+                // The page right before the element may lose its only successor; its hasNext can't be patched
+                Object size = ((List<?>) key).get(2);
+                Object current = closestBefore.get(size);
+                if (current == null || lastOf(pages.get(current)).compareTo(lastOf(page)) < 0) closestBefore.put(size, key);
+            }
+        }
+        closestBefore.values().forEach(this::drop);
+    }
+    public synchronized void evictGroup(Object group) {
+        groupListeners.forEach(listener -> listener.accept(group));
+        dropGroup(group);
+    }
+    // Drops the group's pages without telling group listeners, for changes that were made elsewhere
+    synchronized void dropGroup(Object group) {
+        Set<Object> keys = keysByGroup.get(group);
+        if (keys != null) List.copyOf(keys).forEach(this::drop);
+    }
+
+    @Nullable
+    private Comparable<Object> cursorOf(Object key) {
+        Object cursor = ((List<?>) key).get(1);
+        return cursor instanceof String token && !token.isEmpty() ? positionOfCursor.apply(token) : null;
+    }
+    private Comparable<Object> lastOf(CursorPage<?> page) {
+        return positionOfElement.apply(page.items().getLast());
+    }
+    private void drop(Object key) {
+        evict(key);
+        listeners.forEach(listener -> listener.accept(key));
+    }
+    private void index(Object key, CursorPage<?> page) {
+        if (!(key instanceof List<?> parts) || parts.size() != 3) return;
+        pages.put(key, page);
+        keysByGroup.computeIfAbsent(parts.get(0), group -> new HashSet<>()).add(key);
+    }
+    private void unindex(Object key) {
+        if (pages.remove(key) == null) return;
+        Object group = ((List<?>) key).get(0);
+        Set<Object> keys = keysByGroup.get(group);
+        if (keys != null && keys.remove(key) && keys.isEmpty()) keysByGroup.remove(group);
+    }
+}
@@ -0,0 +1,65 @@
+package com.blog.Cache;
+
+import com.blog.Model.Comment;
+import com.blog.Model.Post;
+import org.springframework.cache.Cache;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+
+import java.util.List;
+
+// Moves long post and comment bodies into a BodySlab on the way in, leaving small headers on the heap.
+// Values keep their types, so the layers below still see Posts and Pages and can order and version them.
+public class OffHeapCache extends CacheDecorator {
+    private final BodySlab slab;
+    private final int minLength;
+
+    public OffHeapCache(Cache delegate, BodySlab slab, int minLength) {
+        super(delegate);
+        this.slab = slab;
+        this.minLength = minLength;
+    }
+
+    @Override
+    public void put(@NonNull Object key, @Nullable Object value) {
+        delegate.put(key, compact(value));
+    }
+    @Override
+    @Nullable
+    public ValueWrapper putIfAbsent(@NonNull Object key, @Nullable Object value) {
+        return delegate.putIfAbsent(key, compact(value));
+    }
+
+    @Nullable
+    private Object compact(@Nullable Object value) {
+        return switch (value) {
+            case null -> null;
+            case OffHeapPost post -> post;
+            case OffHeapComment comment -> comment;
+            case Post post -> {
+                BodySlab.Handle body = offload(post.getBody());
+                yield body == null ? post : new OffHeapPost(post, slab, body);
+            }
+            case Comment comment -> {
+                BodySlab.Handle body = offload(comment.getBody());
+                yield body == null ? comment : new OffHeapComment(comment, slab, body);
+            }
+            case Page<?> page -> new PageImpl<>(compactAll(page.getContent()), page.getPageable(), page.getTotalElements());
+            case Slice<?> slice -> new SliceImpl<>(compactAll(slice.getContent()), slice.getPageable(), slice.hasNext());
+            case List<?> list -> compactAll(list);
+            default -> value;
+        };
+    }
+    private List<Object> compactAll(List<?> values) {
+        return values.stream().map(this::compact).toList();
+    }
+    @Nullable
+    private BodySlab.Handle offload(@Nullable String body) {
+        if (body == null || body.length() < minLength) return null;
+        return slab.store(body);
+    }
+}
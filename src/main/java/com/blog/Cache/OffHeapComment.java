@@ -0,0 +1,24 @@
+package com.blog.Cache;
+
+import com.blog.Model.Comment;
+
+// A cached Comment whose body lives in a BodySlab and is decoded each time it is read
+public class OffHeapComment extends Comment {
+    private final BodySlab slab;
+    private final BodySlab.Handle bodyHandle;
+
+    public OffHeapComment(Comment comment, BodySlab slab, BodySlab.Handle bodyHandle) {
+        super(comment.getId(), comment.getUserId(), comment.getPostId(), null, comment.getCreatedAt());
+        this.slab = slab;
+        this.bodyHandle = bodyHandle;
+    }
+
+    @Override
+    public String getBody() {
+        return slab.load(bodyHandle);
+    }
+    @Override
+    public void setBody(String body) {
+        throw new UnsupportedOperationException("Cached comment " + getId() + " is read-only");
+    }
+}
@@ -0,0 +1,24 @@
+package com.blog.Cache;
+
+import com.blog.Model.Post;
+
+// A cached Post whose body lives in a BodySlab and is decoded each time it is read
+public class OffHeapPost extends Post {
+    private final BodySlab slab;
+    private final BodySlab.Handle bodyHandle;
+
+    public OffHeapPost(Post post, BodySlab slab, BodySlab.Handle bodyHandle) {
+        super(post.getId(), post.getUserId(), post.getTitle(), null, post.isDraft(), post.getCreatedAt(), post.getVersion());
+        this.slab = slab;
+        this.bodyHandle = bodyHandle;
+    }
+
+    @Override
+    public String getBody() {
+        return slab.load(bodyHandle);
+    }
+    @Override
+    public void setBody(String body) {
+        throw new UnsupportedOperationException("Cached post " + getId() + " is read-only");
+    }
+}
@@ -0,0 +1,46 @@
+package com.blog.Cache;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.lang.Nullable;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.function.Function;
+
+public class PageOrdering<T> {
+    private final Class<T> type;
+    private final Function<T, Object> idOf;
+    private final Map<String, Function<T, Comparable<?>>> properties;
+
+    private PageOrdering(Class<T> type, Function<T, Object> idOf, Map<String, Function<T, Comparable<?>>> properties) {
+        this.type = type;
+        this.idOf = idOf;
+        this.properties = properties;
+    }
+    public static <T> PageOrdering<T> of(Class<T> type, Function<T, Object> idOf, Map<String, Function<T, Comparable<?>>> properties) {
+        return new PageOrdering<>(type, idOf, properties);
+    }
+
+    public boolean accepts(@Nullable Object element) {
+        return type.isInstance(element);
+    }
+    public Object idOf(Object element) {
+        return idOf.apply(type.cast(element));
+    }
+    // Only properties whose database ordering matches Java ordering are listed; anything else returns null
+    // and the caller falls back to evicting every page cached under that sort.
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public Comparator<Object> comparatorFor(Sort sort) {
+        Comparator<Object> comparator = null;
+        for (Sort.Order order : sort) {
+            Function<T, Comparable<?>> property = properties.get(order.getProperty());
+            if (property == null || order.isIgnoreCase()) return null;
+            Comparator<Comparable<Object>> values = Comparator.nullsLast(Comparator.<Comparable<Object>>naturalOrder());
+            Comparator<Object> byProperty = Comparator.comparing(element -> (Comparable<Object>) property.apply(type.cast(element)), values);
+            if (order.isDescending()) byProperty = byProperty.reversed();
+            comparator = comparator == null ? byProperty : comparator.thenComparing(byProperty);
+        }
+        return comparator;
+    }
+}
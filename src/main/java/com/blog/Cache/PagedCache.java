@@ -0,0 +1,176 @@
+package com.blog.Cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Slice;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+// Keeps a dependency index from element ids to the cached page keys they appear in, so that a single
+// write only evicts the pages it actually changes. Pages the write does not touch but whose total
+// shifts are re-stamped with the new total instead of being dropped.
+public class PagedCache extends CacheDecorator {
+    private final PageOrdering<?> ordering;
+    private final Map<Object, Slice<?>> pages = new HashMap<>();
+    private final Map<Object, Set<Object>> keysById = new HashMap<>();
+    private final List<Consumer<Object>> listeners = new CopyOnWriteArrayList<>();
+    private final List<Runnable> writeListeners = new CopyOnWriteArrayList<>();
+
+    public PagedCache(Cache delegate, PageOrdering<?> ordering) {
+        super(delegate);
+        this.ordering = ordering;
+    }
+    public static PagedCache from(CacheManager cacheManager, String name) {
+        return find(cacheManager, name, PagedCache.class);
+    }
+    // Notified with the key of every page that inserted/deleted/updated drops or re-stamps
+    public void subscribe(Consumer<Object> listener) {
+        listeners.add(listener);
+    }
+    // Notified of every inserted/deleted/updated, including those that touch none of this node's pages
+    public void subscribeWrites(Runnable listener) {
+        writeListeners.add(listener);
+    }
+
+    @Override
+    public synchronized void put(@NonNull Object key, @Nullable Object value) {
+        delegate.put(key, value);
+        unindex(key);
+        if (value instanceof Slice<?> page) index(key, page);
+    }
+    @Override
+    @Nullable
+    public synchronized ValueWrapper putIfAbsent(@NonNull Object key, @Nullable Object value) {
+        ValueWrapper existing = delegate.putIfAbsent(key, value);
+        if (existing == null && value instanceof Slice<?> page) {
+            unindex(key);
+            index(key, page);
+        }
+        return existing;
+    }
+    @Override
+    public synchronized void evict(@NonNull Object key) {
+        delegate.evict(key);
+        unindex(key);
+    }
+    @Override
+    public synchronized boolean evictIfPresent(@NonNull Object key) {
+        unindex(key);
+        return delegate.evictIfPresent(key);
+    }
+    @Override
+    public synchronized void clear() {
+        delegate.clear();
+        pages.clear();
+        keysById.clear();
+    }
+    @Override
+    public synchronized boolean invalidate() {
+        pages.clear();
+        keysById.clear();
+        return delegate.invalidate();
+    }
+
+    // Called for size/expiry evictions inside the native cache, which bypass this decorator
+    public synchronized void evicted(Object key, Object value) {
+        if (pages.get(key) == value) unindex(key);
+    }
+
+    public synchronized void inserted(Object element) {
+        writeListeners.forEach(Runnable::run);
+        for (Map.Entry<Object, Slice<?>> entry : List.copyOf(pages.entrySet())) {
+            Slice<?> page = entry.getValue();
+            Comparator<Object> comparator = comparatorFor(page, element);
+            if (comparator == null || insertShifts(page, element, comparator)) drop(entry.getKey());
+            else if (page instanceof Page<?>) rebase(entry.getKey(), (Page<?>) page, 1);
+        }
+    }
+    public synchronized void deleted(Object element) {
+        writeListeners.forEach(Runnable::run);
+        Object id = ordering.idOf(element);
+        Map<List<Object>, Object> closestBefore = new HashMap<>();
+        for (Map.Entry<Object, Slice<?>> entry : List.copyOf(pages.entrySet())) {
+            Slice<?> page = entry.getValue();
+            Comparator<Object> comparator = comparatorFor(page, element);
+            if (comparator == null || contains(entry.getKey(), id) || deleteShifts(page, element, comparator)) {
+                drop(entry.getKey());
+            } else if (page instanceof Page<?>) {
+                rebase(entry.getKey(), (Page<?>) page, -1);
+            } else if (page.hasNext()) {
+                // A slice right before the deleted element may lose its only successor; its hasNext can't be patched
+                List<Object> group = List.of(page.getSize(), page.getSort());
+                Object current = closestBefore.get(group);
+                if (current == null || pages.get(current).getNumber() < page.getNumber()) closestBefore.put(group, entry.getKey());
+            }
+        }
+        closestBefore.values().forEach(this::drop);
+    }
+    public synchronized void updated(Object before, Object after) {
+        writeListeners.forEach(Runnable::run);
+        Object id = ordering.idOf(after);
+        for (Map.Entry<Object, Slice<?>> entry : List.copyOf(pages.entrySet())) {
+            Slice<?> page = entry.getValue();
+            if (contains(entry.getKey(), id)) {
+                drop(entry.getKey());
+                continue;
+            }
+            Comparator<Object> comparator = comparatorFor(page, after);
+            if (comparator == null) drop(entry.getKey());
+            else if (comparator.compare(before, after) != 0 && (deleteShifts(page, before, comparator) || insertShifts(page, after, comparator))) drop(entry.getKey());
+        }
+    }
+
+    @Nullable
+    private Comparator<Object> comparatorFor(Slice<?> page, Object element) {
+        if (!ordering.accepts(element)) return null;
+        if (page.hasContent() && !ordering.accepts(page.getContent().get(0))) return null;
+        return ordering.comparatorFor(page.getSort());
+    }
+    private boolean insertShifts(Slice<?> page, Object element, Comparator<Object> comparator) {
+        if (!page.hasContent() || page.getNumberOfElements() < page.getSize()) return true;
+        if (comparator.compare(element, last(page)) <= 0) return true;
+        return !page.hasNext() && !(page instanceof Page<?>);
+    }
+    private boolean deleteShifts(Slice<?> page, Object element, Comparator<Object> comparator) {
+        return page.hasContent() && comparator.compare(element, last(page)) <= 0;
+    }
+    private Object last(Slice<?> page) {
+        return page.getContent().get(page.getNumberOfElements() - 1);
+    }
+    private boolean contains(Object key, Object id) {
+        Set<Object> keys = keysById.get(id);
+        return keys != null && keys.contains(key);
+    }
+    private void drop(Object key) {
+        evict(key);
+        listeners.forEach(listener -> listener.accept(key));
+    }
+    private void rebase(Object key, Page<?> page, int delta) {
+        Page<?> rebased = new PageImpl<>(page.getContent(), page.getPageable(), Math.max(0, page.getTotalElements() + delta));
+        delegate.put(key, rebased);
+        pages.put(key, rebased);
+        listeners.forEach(listener -> listener.accept(key));
+    }
+    private void index(Object key, Slice<?> page) {
+        pages.put(key, page);
+        for (Object element : page.getContent()) {
+            if (ordering.accepts(element)) keysById.computeIfAbsent(ordering.idOf(element), id -> new HashSet<>()).add(key);
+        }
+    }
+    private void unindex(Object key) {
+        Slice<?> page = pages.remove(key);
+        if (page == null) return;
+        for (Object element : page.getContent()) {
+            if (!ordering.accepts(element)) continue;
+            Object id = ordering.idOf(element);
+            Set<Object> keys = keysById.get(id);
+            if (keys != null && keys.remove(key) && keys.isEmpty()) keysById.remove(id);
+        }
+    }
+}
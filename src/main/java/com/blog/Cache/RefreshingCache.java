@@ -0,0 +1,162 @@
+package com.blog.Cache;
+
+import com.blog.Utility.TransactionCallbacks;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+// Stale-while-revalidate: evicting a key that has a registered loader keeps serving the previous value and
+// recomputes it in the background. Once a value has been stale for longer than maxStaleness, readers stop
+// accepting it and fall through to a synchronous load.
+public class RefreshingCache extends CacheDecorator {
+    private static final Logger logger = LoggerFactory.getLogger(RefreshingCache.class);
+
+    private final Map<Object, Supplier<?>> loaders = new ConcurrentHashMap<>();
+    private final Map<Object, Instant> refreshedAt = new ConcurrentHashMap<>();
+    private final Map<Object, Instant> staleSince = new ConcurrentHashMap<>();
+    private final Set<Object> refreshing = ConcurrentHashMap.newKeySet();
+    private final Set<Object> requested = ConcurrentHashMap.newKeySet();
+    private final Duration maxStaleness;
+    private final Executor executor;
+    private final Clock clock = Clock.systemUTC();
+
+    public RefreshingCache(Cache delegate, Duration maxStaleness) {
+        super(delegate);
+        this.maxStaleness = maxStaleness;
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cache-refresh-" + delegate.getName());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void register(Object key, Supplier<?> loader) {
+        loaders.put(key, loader);
+    }
+    public Optional<Instant> lastRefreshed(Object key) {
+        return Optional.ofNullable(refreshedAt.get(key));
+    }
+    public Map<Object, Instant> lastRefreshed() {
+        return Map.copyOf(refreshedAt);
+    }
+    public void refreshAll() {
+        loaders.keySet().forEach(this::refresh);
+    }
+
+    @Override
+    @Nullable
+    public ValueWrapper get(@NonNull Object key) {
+        ValueWrapper cached = delegate.get(key);
+        if (cached == null) return null;
+        Instant since = staleSince.get(key);
+        if (since != null && since.plus(maxStaleness).isBefore(clock.instant())) return null;
+        return cached;
+    }
+    @Override
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public <T> T get(@NonNull Object key, @Nullable Class<T> type) {
+        ValueWrapper cached = get(key);
+        Object value = cached == null ? null : cached.get();
+        if (value != null && type != null && !type.isInstance(value)) throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        return (T) value;
+    }
+    @Override
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public <T> T get(@NonNull Object key, @NonNull Callable<T> valueLoader) {
+        ValueWrapper cached = get(key);
+        if (cached != null) return (T) cached.get();
+        T value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        put(key, value);
+        return value;
+    }
+    @Override
+    public void put(@NonNull Object key, @Nullable Object value) {
+        delegate.put(key, value);
+        refreshedAt.put(key, clock.instant());
+        staleSince.remove(key);
+    }
+    @Override
+    @Nullable
+    public ValueWrapper putIfAbsent(@NonNull Object key, @Nullable Object value) {
+        ValueWrapper existing = delegate.putIfAbsent(key, value);
+        if (existing == null) {
+            refreshedAt.put(key, clock.instant());
+            staleSince.remove(key);
+        }
+        return existing;
+    }
+    @Override
+    public void evict(@NonNull Object key) {
+        evictIfPresent(key);
+    }
+    @Override
+    public boolean evictIfPresent(@NonNull Object key) {
+        if (loaders.containsKey(key) && delegate.get(key) != null) {
+            staleSince.putIfAbsent(key, clock.instant());
+            // Recompute once the evicting write is visible, not while its transaction is still open
+            TransactionCallbacks.afterCommit(() -> refresh(key));
+            return true;
+        }
+        refreshedAt.remove(key);
+        staleSince.remove(key);
+        return delegate.evictIfPresent(key);
+    }
+    @Override
+    public void clear() {
+        if (getTargetCache() instanceof CaffeineCache caffeineCache) {
+            List.copyOf(caffeineCache.getNativeCache().asMap().keySet()).forEach(this::evict);
+        } else {
+            invalidate();
+        }
+    }
+    @Override
+    public boolean invalidate() {
+        refreshedAt.clear();
+        staleSince.clear();
+        return delegate.invalidate();
+    }
+
+    private void refresh(Object key) {
+        if (!loaders.containsKey(key)) return;
+        requested.add(key);
+        if (refreshing.add(key)) executor.execute(() -> runRefresh(key));
+    }
+    private void runRefresh(Object key) {
+        try {
+            while (requested.remove(key)) {
+                Instant started = clock.instant();
+                delegate.put(key, loaders.get(key).get());
+                refreshedAt.put(key, started);
+                staleSince.computeIfPresent(key, (k, since) -> since.isAfter(started) ? since : null);
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Background refresh of {} entry {} failed: {}", getName(), key, e.getMessage());
+        } finally {
+            refreshing.remove(key);
+            if (requested.contains(key)) refresh(key);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.blog.Cache;
+
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.RemovalListener;
+import org.springframework.lang.Nullable;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// Caffeine only accepts its removal listener at build time, before the decorators that care about
+// removals exist, so the listener is a relay they subscribe to afterwards.
+public class RemovalRelay implements RemovalListener<Object, Object> {
+    private final List<RemovalListener<Object, Object>> listeners = new CopyOnWriteArrayList<>();
+
+    public void subscribe(RemovalListener<Object, Object> listener) {
+        listeners.add(listener);
+    }
+    @Override
+    public void onRemoval(@Nullable Object key, @Nullable Object value, RemovalCause cause) {
+        for (RemovalListener<Object, Object> listener : listeners) listener.onRemoval(key, value, cause);
+    }
+}
@@ -0,0 +1,99 @@
+package com.blog.Cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.lang.Nullable;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Serialized GET responses, each tied to the service cache entries it was rendered from. A response is
+// only stored if none of those entries changed while it was being rendered, otherwise it could outlive
+// the invalidation that should have removed it.
+public class ResponseCache implements CacheChangeListener {
+    private final Cache<String, Stored> entries;
+    private final Map<CacheDependency, Set<String>> dependents = new HashMap<>();
+    private final Map<String, Set<String>> dependentsByCache = new HashMap<>();
+    private final Cache<CacheDependency, Long> invalidatedAt;
+    private final Map<String, Long> clearedAt = new ConcurrentHashMap<>();
+    private final AtomicLong clock = new AtomicLong();
+
+    public ResponseCache(long maximumBytes, Duration timeToLive, MeterRegistry registry) {
+        this.entries = Caffeine.newBuilder()
+                .maximumWeight(maximumBytes)
+                .<String, Stored>weigher((key, stored) -> key.length() + stored.response().body().length)
+                .expireAfterWrite(timeToLive)
+                .removalListener((String key, Stored stored, RemovalCause cause) -> {
+                    if (key != null && stored != null && cause.wasEvicted()) unindex(key, stored);
+                })
+                .recordStats()
+                .build();
+        // Only needs to outlive the slowest render
+        this.invalidatedAt = Caffeine.newBuilder().expireAfterWrite(timeToLive).maximumSize(100_000).build();
+        CaffeineCacheMetrics.monitor(registry, entries, "responses");
+    }
+
+    public long begin() {
+        return clock.get();
+    }
+    @Nullable
+    public CachedResponse get(String key) {
+        Stored stored = entries.getIfPresent(key);
+        return stored == null ? null : stored.response();
+    }
+    public synchronized void put(String key, CachedResponse response, Set<CacheDependency> dependencies, long since) {
+        for (CacheDependency dependency : dependencies) {
+            Long invalidated = invalidatedAt.getIfPresent(dependency);
+            Long cleared = clearedAt.get(dependency.cacheName());
+            if ((invalidated != null && invalidated > since) || (cleared != null && cleared > since)) return;
+        }
+        Stored stored = new Stored(response, Set.copyOf(dependencies));
+        Stored previous = entries.asMap().put(key, stored);
+        if (previous != null) unindex(key, previous);
+        for (CacheDependency dependency : stored.dependencies()) {
+            dependents.computeIfAbsent(dependency, d -> new HashSet<>()).add(key);
+            dependentsByCache.computeIfAbsent(dependency.cacheName(), name -> new HashSet<>()).add(key);
+        }
+    }
+    @Override
+    public synchronized void changed(String cacheName, Object key) {
+        CacheDependency dependency = new CacheDependency(cacheName, key);
+        invalidatedAt.put(dependency, clock.incrementAndGet());
+        Set<String> keys = dependents.get(dependency);
+        if (keys != null) Set.copyOf(keys).forEach(this::remove);
+    }
+    @Override
+    public synchronized void cleared(String cacheName) {
+        clearedAt.put(cacheName, clock.incrementAndGet());
+        Set<String> keys = dependentsByCache.get(cacheName);
+        if (keys != null) Set.copyOf(keys).forEach(this::remove);
+    }
+
+    private void remove(String key) {
+        Stored stored = entries.asMap().remove(key);
+        if (stored != null) unindex(key, stored);
+    }
+    private synchronized void unindex(String key, Stored stored) {
+        Stored current = entries.getIfPresent(key);
+        for (CacheDependency dependency : stored.dependencies()) {
+            if (current != null && current.dependencies().contains(dependency)) continue;
+            Set<String> keys = dependents.get(dependency);
+            if (keys != null && keys.remove(key) && keys.isEmpty()) dependents.remove(dependency);
+            if (current != null && current.dependencies().stream().anyMatch(d -> d.cacheName().equals(dependency.cacheName()))) continue;
+            Set<String> cacheKeys = dependentsByCache.get(dependency.cacheName());
+            if (cacheKeys != null && cacheKeys.remove(key) && cacheKeys.isEmpty()) dependentsByCache.remove(dependency.cacheName());
+        }
+    }
+
+    // lastModified is -1 when the controller set no Last-Modified header
+    public record CachedResponse(byte[] body, @Nullable String contentType, String etag, long lastModified) { }
+    private record Stored(CachedResponse response, Set<CacheDependency> dependencies) { }
+}
@@ -0,0 +1,88 @@
+package com.blog.Cache;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Set;
+import java.util.function.Predicate;
+
+// Serves repeated GETs from the serialized bytes of an earlier response, skipping the controller,
+// DTO mapping and Jackson entirely. Only 200 responses that read at least one service cache entry
+// are stored, since those reads are what ties an entry to the writes that must drop it. Endpoints that
+// build part of a response straight from the database have to be bypassed: the entries they do read
+// would not cover every write that changes them.
+public class ResponseCacheFilter extends OncePerRequestFilter {
+    private final ResponseCache responses;
+    private final Predicate<HttpServletRequest> bypassed;
+
+    public ResponseCacheFilter(ResponseCache responses, Predicate<HttpServletRequest> bypassed) {
+        this.responses = responses;
+        this.bypassed = bypassed;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !HttpMethod.GET.matches(request.getMethod()) || bypassed.test(request);
+    }
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull FilterChain filterChain) throws ServletException, IOException {
+        String key = request.getQueryString() == null ? request.getRequestURI() : request.getRequestURI() + "?" + request.getQueryString();
+        ResponseCache.CachedResponse cached = responses.get(key);
+        if (cached != null) {
+            if (!new ServletWebRequest(request, response).checkNotModified(cached.etag(), cached.lastModified())) write(cached, response);
+            return;
+        }
+
+        long since = responses.begin();
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        Set<CacheDependency> dependencies;
+        CacheReadRecorder.start();
+        try {
+            filterChain.doFilter(request, wrapper);
+        } finally {
+            dependencies = CacheReadRecorder.stop();
+        }
+        if (wrapper.getStatus() == HttpServletResponse.SC_OK && !dependencies.isEmpty()) {
+            byte[] body = wrapper.getContentAsByteArray();
+            String etag = wrapper.getHeader(HttpHeaders.ETAG);
+            if (etag == null) {
+                etag = "\"" + DigestUtils.md5DigestAsHex(body) + "\"";
+                wrapper.setHeader(HttpHeaders.ETAG, etag);
+            }
+            long lastModified = parseDate(wrapper.getHeader(HttpHeaders.LAST_MODIFIED));
+            responses.put(key, new ResponseCache.CachedResponse(body, wrapper.getContentType(), etag, lastModified), dependencies, since);
+        }
+        wrapper.copyBodyToResponse();
+    }
+
+    private void write(ResponseCache.CachedResponse cached, HttpServletResponse response) throws IOException {
+        response.setStatus(HttpServletResponse.SC_OK);
+        if (cached.contentType() != null) response.setContentType(cached.contentType());
+        response.setHeader(HttpHeaders.ETAG, cached.etag());
+        if (cached.lastModified() >= 0) response.setDateHeader(HttpHeaders.LAST_MODIFIED, cached.lastModified());
+        response.setContentLength(cached.body().length);
+        response.getOutputStream().write(cached.body());
+    }
+    private long parseDate(@Nullable String value) {
+        if (value == null) return -1;
+        try {
+            return ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            return -1;
+        }
+    }
+}
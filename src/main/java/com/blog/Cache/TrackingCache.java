@@ -0,0 +1,80 @@
+package com.blog.Cache;
+
+import com.blog.Utility.TransactionCallbacks;
+import org.springframework.cache.Cache;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+
+// Records reads for CacheReadRecorder and reports every write to its listeners, so anything derived
+// from a cache entry (serialized responses, HTTP validators) changes on exactly the events that change it.
+public class TrackingCache extends CacheDecorator {
+    private final List<CacheChangeListener> listeners;
+
+    public TrackingCache(Cache delegate, List<CacheChangeListener> listeners) {
+        super(delegate);
+        this.listeners = List.copyOf(listeners);
+    }
+
+    @Override
+    @Nullable
+    public ValueWrapper get(@NonNull Object key) {
+        CacheReadRecorder.record(getName(), key);
+        return delegate.get(key);
+    }
+    @Override
+    @Nullable
+    public <T> T get(@NonNull Object key, @Nullable Class<T> type) {
+        CacheReadRecorder.record(getName(), key);
+        return delegate.get(key, type);
+    }
+    @Override
+    @Nullable
+    public <T> T get(@NonNull Object key, @NonNull Callable<T> valueLoader) {
+        CacheReadRecorder.record(getName(), key);
+        return delegate.get(key, valueLoader);
+    }
+    @Override
+    public void put(@NonNull Object key, @Nullable Object value) {
+        delegate.put(key, value);
+        changed(key);
+    }
+    @Override
+    protected void fill(Object key, @Nullable Object value) {
+        fill(delegate, key, value);
+    }
+    @Override
+    public void evict(@NonNull Object key) {
+        delegate.evict(key);
+        changed(key);
+    }
+    @Override
+    public boolean evictIfPresent(@NonNull Object key) {
+        boolean present = delegate.evictIfPresent(key);
+        changed(key);
+        return present;
+    }
+    @Override
+    public void clear() {
+        delegate.clear();
+        cleared();
+    }
+    @Override
+    public boolean invalidate() {
+        boolean present = delegate.invalidate();
+        cleared();
+        return present;
+    }
+
+    // Reported again after commit: a reader between an early @CacheEvict and the commit still sees the old rows
+    private void changed(Object key) {
+        for (CacheChangeListener listener : listeners) listener.changed(getName(), key);
+        TransactionCallbacks.afterCommit(() -> listeners.forEach(listener -> listener.changed(getName(), key)));
+    }
+    private void cleared() {
+        for (CacheChangeListener listener : listeners) listener.cleared(getName());
+        TransactionCallbacks.afterCommit(() -> listeners.forEach(listener -> listener.cleared(getName())));
+    }
+}
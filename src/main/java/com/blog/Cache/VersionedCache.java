@@ -0,0 +1,82 @@
+package com.blog.Cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.support.NullValue;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+// Write-through entries carry the entity's optimistic-lock version. A put only replaces an entry with an
+// equal or newer version, so a slow reader or an out-of-order writer can't overwrite a fresher value.
+// Evicts leave a floor behind for a short while, which keeps a load that raced the write from putting an older
+// version back: the evicted entry's version when it was cached, and the version the writer reports through
+// written. A delete reported through deleted turns away puts of any version until its floor expires.
+public class VersionedCache extends CacheDecorator {
+    private static final long DELETED = Long.MAX_VALUE;
+
+    private final ConcurrentMap<Object, Object> store;
+    private final ConcurrentMap<Object, Long> floors;
+    private final Function<Object, Long> versionOf;
+
+    public VersionedCache(CaffeineCache delegate, Function<Object, Long> versionOf, Duration evictionMemory) {
+        super(delegate);
+        this.store = delegate.getNativeCache().asMap();
+        this.floors = Caffeine.newBuilder().expireAfterWrite(evictionMemory).maximumSize(10_000).<Object, Long>build().asMap();
+        this.versionOf = versionOf;
+    }
+
+    @Override
+    public void put(@NonNull Object key, @Nullable Object value) {
+        Object storeValue = toStoreValue(value);
+        Long version = versionOf.apply(value);
+        Long floor = floors.get(key);
+        if (version != null && floor != null && version <= floor) return;
+        store.compute(key, (k, current) -> isNewer(version, current) ? storeValue : current);
+    }
+    @Override
+    @Nullable
+    public ValueWrapper putIfAbsent(@NonNull Object key, @Nullable Object value) {
+        Long version = versionOf.apply(value);
+        Long floor = floors.get(key);
+        if (version != null && floor != null && version <= floor) return delegate.get(key);
+        return delegate.putIfAbsent(key, value);
+    }
+    @Override
+    public void evict(@NonNull Object key) {
+        remember(key);
+        delegate.evict(key);
+    }
+    @Override
+    public boolean evictIfPresent(@NonNull Object key) {
+        remember(key);
+        return delegate.evictIfPresent(key);
+    }
+
+    // Called before evicting an entity that was just written with the given version
+    public void written(Object key, @Nullable Long version) {
+        if (version != null) floors.merge(key, version - 1, Math::max);
+    }
+    // Called before evicting an entity that was just deleted
+    public void deleted(Object key) {
+        floors.put(key, DELETED);
+    }
+
+    private void remember(Object key) {
+        Object current = store.get(key);
+        Long version = current == null ? null : versionOf.apply(current);
+        if (version != null) floors.merge(key, version, Math::max);
+    }
+    private boolean isNewer(@Nullable Long version, @Nullable Object current) {
+        if (current == null) return true;
+        Long currentVersion = versionOf.apply(current);
+        if (currentVersion == null) return true;
+        return version != null && version >= currentVersion;
+    }
+    private Object toStoreValue(@Nullable Object value) {
+        return value == null ? NullValue.INSTANCE : value;
+    }
+}
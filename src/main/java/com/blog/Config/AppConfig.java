@@ -1,24 +1,196 @@
 package com.blog.Config;
 
+import com.blog.Cache.BodySlab;
+import com.blog.Cache.BroadcastingCache;
+import com.blog.Cache.CacheChangeListener;
+import com.blog.Cache.CacheEntryWeigher;
+import com.blog.Cache.CacheInvalidationBus;
+import com.blog.Cache.CoalescingCache;
+import com.blog.Cache.DecoratedCacheMeterBinderProvider;
+import com.blog.Cache.KeysetPagedCache;
+import com.blog.Cache.OffHeapCache;
+import com.blog.Cache.PageOrdering;
+import com.blog.Cache.PagedCache;
+import com.blog.Cache.RefreshingCache;
+import com.blog.Cache.RemovalRelay;
+import com.blog.Cache.ResponseCache;
+import com.blog.Cache.ResponseCacheFilter;
+import com.blog.Cache.TrackingCache;
+import com.blog.Cache.VersionedCache;
+import com.blog.DataTransporter.Post.PostSummary;
+import com.blog.Model.Comment;
+import com.blog.Model.Post;
+import com.blog.Model.PostTags;
+import com.blog.Search.PostIndex;
+import com.blog.Utility.CommentCursor;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
+import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
-import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.support.SimpleCacheManager;
+import jakarta.servlet.http.HttpServletRequest;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
 
 @Configuration
 @EnableTransactionManagement
+@EnableConfigurationProperties({CacheProperties.class, SearchProperties.class})
 public class AppConfig {
+	public static final String[] CACHE_NAMES = {
+			"Post.getAll",
+			"Post.getSlice",
+			"Post.getSummaries",
+			"Post.getSummarySlice",
+			"Post.findById",
+			"Post.count",
+			"Post.search",
+			"Comment.findByPostId",
+			"Comment.findPage",
+			"Post.commentCount",
+			"PostTags.findAll",
+			"PostTags.findSlice",
+			"PostTags.findByPostId",
+			"PostTags.count"
+	};
+
+	@Bean
+	public CacheManager cacheManager(CacheProperties properties, MeterRegistry meterRegistry, ObjectProvider<CacheInvalidationBus> invalidationBus, ObjectProvider<ResponseCache> responseCache) {
+		CacheInvalidationBus bus = invalidationBus.getIfAvailable();
+		ResponseCache responses = responseCache.getIfAvailable();
+		CacheProperties.OffHeap offHeap = properties.getOffHeap();
+		BodySlab slab = offHeap.isEnabled() ? new BodySlab(offHeap.getCapacity().toBytes(), (int) offHeap.getChunkSize().toBytes(), offHeap.isCompress(), meterRegistry) : null;
+		SimpleCacheManager cacheManager = new SimpleCacheManager();
+		cacheManager.setCaches(Arrays.stream(CACHE_NAMES).map(name -> buildCache(name, properties, meterRegistry, bus, slab, responses)).toList());
+		return cacheManager;
+	}
+	@Bean
+	@ConditionalOnProperty(prefix = "blog.cache.bus", name = "enabled", havingValue = "true")
+	public CacheInvalidationBus cacheInvalidationBus(DataSource dataSource, CacheProperties properties, MeterRegistry meterRegistry) {
+		CacheProperties.Bus bus = properties.getBus();
+		return new CacheInvalidationBus(dataSource, bus.getChannel(), bus.getBatchWindow(), bus.getReconnectDelay(), meterRegistry);
+	}
+	@Bean
+	@ConditionalOnProperty(prefix = "blog.cache.responses", name = "enabled", havingValue = "true")
+	public ResponseCache responseCache(CacheProperties properties, MeterRegistry meterRegistry) {
+		return new ResponseCache(properties.getResponses().getMaximumSize().toBytes(), properties.getResponses().getTimeToLive(), meterRegistry);
+	}
 	@Bean
-	public CacheManager cacheManager() {
-		return new ConcurrentMapCacheManager(
-				"Post.getAll",
-				"Post.findById",
-				"Post.count",
-				"Comment.findByPostId",
-				"PostTags.findAll",
-				"PostTags.findByPostId",
-				"PostTags.count"
-		);
+	@ConditionalOnProperty(prefix = "blog.cache.responses", name = "enabled", havingValue = "true")
+	public FilterRegistrationBean<ResponseCacheFilter> responseCacheFilter(ResponseCache responseCache, SearchProperties searchProperties) {
+		// Cursor and tag listings read posts from the repository, so new posts and edits never reach their recorded
+		// entries; neither do results of the in-process index, which isn't a cache the writes report to
+		boolean indexSearch = searchProperties.getEngine().equals("index");
+		Predicate<HttpServletRequest> bypassed = request -> {
+			String path = pathOf(request);
+			return (path.equals("/api/posts") && request.getParameter("cursor") != null) || path.equals("/api/posts/tagged")
+					|| (indexSearch && path.equals("/api/posts/search"));
+		};
+		FilterRegistrationBean<ResponseCacheFilter> registration = new FilterRegistrationBean<>(new ResponseCacheFilter(responseCache, bypassed));
+		registration.addUrlPatterns("/api/posts", "/api/posts/*", "/api/comments/post/*", "/api/tags/*");
+		return registration;
+	}
+	@Bean
+	@ConditionalOnProperty(prefix = "blog.search", name = "engine", havingValue = "index")
+	public PostIndex postIndex(MeterRegistry meterRegistry) {
+		return new PostIndex(meterRegistry);
+	}
+	@Bean
+	public DecoratedCacheMeterBinderProvider decoratedCacheMeterBinderProvider() {
+		return new DecoratedCacheMeterBinderProvider();
+	}
+
+	private static String pathOf(HttpServletRequest request) {
+		return request.getRequestURI().substring(request.getContextPath().length());
+	}
+	private Cache buildCache(String name, CacheProperties properties, MeterRegistry meterRegistry, CacheInvalidationBus bus, BodySlab slab, ResponseCache responses) {
+		RemovalRelay removals = new RemovalRelay();
+		CaffeineCache caffeineCache = buildCaffeineCache(name, properties.specFor(name), removals);
+		Cache cache = caffeineCache;
+		if (name.equals("Post.findById")) {
+			cache = new VersionedCache(caffeineCache, value -> value instanceof Post post ? post.getVersion() : null, properties.getTombstoneTtl());
+		}
+		if (name.endsWith(".count")) {
+			cache = new RefreshingCache(cache, properties.getMaxStaleness());
+		}
+		PageOrdering<?> ordering = switch (name) {
+			case "Post.getAll", "Post.getSlice" -> PageOrdering.of(Post.class, Post::getId, Map.<String, Function<Post, Comparable<?>>>of(
+					"id", Post::getId,
+					"userId", Post::getUserId,
+					"draft", Post::isDraft,
+					"createdAt", Post::getCreatedAt
+			));
+			case "Post.getSummaries", "Post.getSummarySlice" -> PageOrdering.of(PostSummary.class, PostSummary::id, Map.<String, Function<PostSummary, Comparable<?>>>of(
+					"id", PostSummary::id,
+					"userId", PostSummary::userId,
+					"draft", PostSummary::draft,
+					"createdAt", PostSummary::createdAt
+			));
+			case "PostTags.findAll", "PostTags.findSlice" -> PageOrdering.of(PostTags.class, PostTags::getId, Map.<String, Function<PostTags, Comparable<?>>>of(
+					"id", PostTags::getId,
+					"postId", PostTags::getPostId
+			));
+			default -> null;
+		};
+		PagedCache pagedCache = null;
+		if (ordering != null) {
+			PagedCache paged = new PagedCache(cache, ordering);
+			removals.subscribe((key, value, cause) -> {
+				if (cause.wasEvicted()) paged.evicted(key, value);
+			});
+			cache = pagedCache = paged;
+		}
+		KeysetPagedCache keysetCache = null;
+		if (name.equals("Comment.findPage")) {
+			KeysetPagedCache keyset = new KeysetPagedCache(cache, element -> CommentCursor.of((Comment) element), CommentCursor::decode);
+			removals.subscribe((key, value, cause) -> {
+				if (cause.wasEvicted()) keyset.evicted(key, value);
+			});
+			cache = keysetCache = keyset;
+		}
+		if (slab != null && properties.getOffHeap().getCaches().contains(name)) {
+			cache = new OffHeapCache(cache, slab, properties.getOffHeap().getMinLength());
+		}
+		cache = new CoalescingCache(cache, properties.getLoadTimeout(), meterRegistry);
+		List<CacheChangeListener> listeners = new ArrayList<>();
+		if (responses != null) {
+			listeners.add(responses);
+			// A response rendered from an entry that is no longer cached would never hear about its next write
+			removals.subscribe((key, value, cause) -> {
+				if (cause.wasEvicted()) responses.changed(name, key);
+			});
+		}
+		cache = new TrackingCache(cache, listeners);
+		if (pagedCache != null) pagedCache.subscribe(key -> listeners.forEach(listener -> listener.changed(name, key)));
+		if (keysetCache != null) keysetCache.subscribe(key -> listeners.forEach(listener -> listener.changed(name, key)));
+		if (bus == null) return cache;
+		BroadcastingCache broadcastingCache = new BroadcastingCache(cache, bus);
+		if (pagedCache != null) pagedCache.subscribeWrites(broadcastingCache::pagesChanged);
+		if (keysetCache != null) keysetCache.subscribeGroups(broadcastingCache::groupChanged);
+		return broadcastingCache;
+	}
+	private CaffeineCache buildCaffeineCache(String name, CacheProperties.Spec spec, RemovalRelay removals) {
+		Caffeine<Object, Object> builder = Caffeine.newBuilder()
+				.maximumWeight(spec.getMaximumWeight())
+				.weigher(new CacheEntryWeigher())
+				.initialCapacity(spec.getInitialCapacity())
+				.removalListener(removals)
+				.recordStats();
+		if (spec.getExpireAfterWrite() != null) builder.expireAfterWrite(spec.getExpireAfterWrite());
+		if (spec.getExpireAfterAccess() != null) builder.expireAfterAccess(spec.getExpireAfterAccess());
+		return new CaffeineCache(name, builder.build());
 	}
 }
@@ -0,0 +1,100 @@
+package com.blog.Config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "blog.cache")
+public class CacheProperties {
+    private Spec defaults = new Spec(10_000_000L, Duration.ofMinutes(10), null, 64);
+    private Map<String, Spec> specs = new HashMap<>();
+    private Duration loadTimeout = Duration.ofSeconds(5);
+    private boolean writeThrough = true;
+    private Duration tombstoneTtl = Duration.ofSeconds(30);
+    private Duration maxStaleness = Duration.ofSeconds(30);
+    private Bus bus = new Bus();
+    private WarmUp warmUp = new WarmUp();
+    private OffHeap offHeap = new OffHeap();
+    private Responses responses = new Responses();
+
+    public Spec specFor(String cacheName) {
+        Spec spec = specs.get(cacheName);
+        if (spec == null) return defaults;
+        return new Spec(
+                spec.getMaximumWeight() != null ? spec.getMaximumWeight() : defaults.getMaximumWeight(),
+                spec.getExpireAfterWrite() != null ? spec.getExpireAfterWrite() : defaults.getExpireAfterWrite(),
+                spec.getExpireAfterAccess() != null ? spec.getExpireAfterAccess() : defaults.getExpireAfterAccess(),
+                spec.getInitialCapacity() != null ? spec.getInitialCapacity() : defaults.getInitialCapacity()
+        );
+    }
+
+    @Getter
+    @Setter
+    public static class Spec {
+        // Weight is measured in characters of cached text, see CacheEntryWeigher
+        private Long maximumWeight;
+        private Duration expireAfterWrite;
+        private Duration expireAfterAccess;
+        private Integer initialCapacity;
+
+        public Spec() { }
+
+        public Spec(Long maximumWeight, Duration expireAfterWrite, Duration expireAfterAccess, Integer initialCapacity) {
+            this.maximumWeight = maximumWeight;
+            this.expireAfterWrite = expireAfterWrite;
+            this.expireAfterAccess = expireAfterAccess;
+            this.initialCapacity = initialCapacity;
+        }
+    }
+
+    @Getter
+    @Setter
+    public static class Bus {
+        private boolean enabled = false;
+        private String channel = "blog_cache_invalidation";
+        private Duration batchWindow = Duration.ofMillis(5);
+        private Duration reconnectDelay = Duration.ofSeconds(1);
+    }
+
+    @Getter
+    @Setter
+    public static class WarmUp {
+        private boolean enabled = false;
+        private int pages = 3;
+        // Spring Data's default REST page size and the GraphQL resolver's default
+        private List<Integer> pageSizes = List.of(20, 5);
+        // "property:direction", or "unsorted" for listings requested without a sort parameter
+        private List<String> sorts = List.of("unsorted", "createdAt:desc");
+        private int recentPosts = 50;
+        private int parallelism = 4;
+        private Duration budget = Duration.ofSeconds(30);
+    }
+
+    @Getter
+    @Setter
+    public static class OffHeap {
+        private boolean enabled = false;
+        private List<String> caches = List.of("Post.findById", "Post.getAll", "Post.getSlice", "Comment.findByPostId");
+        private DataSize capacity = DataSize.ofMegabytes(256);
+        private DataSize chunkSize = DataSize.ofBytes(1024);
+        // Bodies shorter than this stay on the heap, where they cost less than a slab lookup
+        private int minLength = 512;
+        private boolean compress = false;
+    }
+
+    @Getter
+    @Setter
+    public static class Responses {
+        private boolean enabled = false;
+        private DataSize maximumSize = DataSize.ofMegabytes(64);
+        private Duration timeToLive = Duration.ofMinutes(5);
+    }
+}
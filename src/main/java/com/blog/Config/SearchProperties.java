@@ -0,0 +1,27 @@
+package com.blog.Config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.List;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "blog.search")
+public class SearchProperties {
+    // "postgres" ranks with the tsvector column, "index" with the in-process PostIndex
+    private String engine = "postgres";
+    // Where the in-process index is saved on shutdown and restored from on startup; blank to always rebuild
+    private String snapshot = "";
+    private Benchmark benchmark = new Benchmark();
+
+    @Getter
+    @Setter
+    public static class Benchmark {
+        private boolean enabled = false;
+        private List<String> queries = List.of("spring", "java performance", "cache invalidation", "postgres index");
+        private int iterations = 200;
+        private int limit = 20;
+    }
+}
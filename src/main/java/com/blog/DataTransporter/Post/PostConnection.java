@@ -0,0 +1,21 @@
+package com.blog.DataTransporter.Post;
+
+import com.blog.Model.Post;
+import com.blog.Utility.CursorPage;
+import com.blog.Utility.PostCursor;
+
+import java.util.List;
+
+// Relay connection shape for the GraphQL cursor query. Edge cursors mark positions only; whether the
+// next read goes forward or backward from one depends on passing it as after or before.
+public record PostConnection(List<Edge> edges, PageInfo pageInfo) {
+    public static PostConnection of(CursorPage<Post> page) {
+        List<Edge> edges = page.items().stream().map(post -> new Edge(PostCursor.after(post).encode(), post)).toList();
+        String startCursor = edges.isEmpty() ? null : edges.getFirst().cursor();
+        String endCursor = edges.isEmpty() ? null : edges.getLast().cursor();
+        return new PostConnection(edges, new PageInfo(page.hasNext(), page.hasPrevious(), startCursor, endCursor));
+    }
+
+    public record Edge(String cursor, Post node) { }
+    public record PageInfo(boolean hasNextPage, boolean hasPreviousPage, String startCursor, String endCursor) { }
+}
@@ -0,0 +1,21 @@
+package com.blog.DataTransporter.Post;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDateTime;
+
+@Schema(description = "A post matching a search query, with the matching parts of its body highlighted.")
+public record PostSearchResult(
+    @Schema(description = "Unique identifier of the post.", example = "1", requiredMode = Schema.RequiredMode.REQUIRED)
+    Integer id,
+    @Schema(description = "ID of the post author.", example = "1", requiredMode = Schema.RequiredMode.REQUIRED)
+    Integer userId,
+    @Schema(description = "Title of the blog post.", example = "Getting Started with Spring Boot", requiredMode = Schema.RequiredMode.REQUIRED)
+    String title,
+    @Schema(description = "Date and time when the post was created. ISO 8601 format.", example = "2023-07-25T12:00:00Z", format = "date-time", requiredMode = Schema.RequiredMode.REQUIRED)
+    LocalDateTime createdAt,
+    @Schema(description = "Relevance of the post to the query; title matches weigh more than body matches.", example = "0.6079271", requiredMode = Schema.RequiredMode.REQUIRED)
+    float rank,
+    @Schema(description = "HTML-escaped fragments of the body with matching terms wrapped in <mark> tags.", example = "Getting started with <mark>Spring</mark> Boot...", requiredMode = Schema.RequiredMode.REQUIRED)
+    String snippet
+) { }
@@ -0,0 +1,18 @@
+package com.blog.DataTransporter.Post;
+
+import com.blog.Model.Post;
+
+import java.time.LocalDateTime;
+
+// A post without its body, for listings. PostRepository builds it in the query itself, so the TEXT column
+// never leaves Postgres; only the first EXCERPT_LENGTH characters do.
+public record PostSummary(Integer id, Integer userId, String title, boolean draft, LocalDateTime createdAt, String excerpt) {
+    public static final int EXCERPT_LENGTH = 200;
+
+    public static PostSummary of(Post post) {
+        return new PostSummary(post.getId(), post.getUserId(), post.getTitle(), post.isDraft(), post.getCreatedAt(), excerptOf(post.getBody()));
+    }
+    public static String excerptOf(String body) {
+        return body == null || body.length() <= EXCERPT_LENGTH ? body : body.substring(0, EXCERPT_LENGTH);
+    }
+}
@@ -24,9 +24,11 @@ public record ResponsePostDTO(
     boolean draft,
     @Schema(description = "Date and time when the post was created. ISO 8601 format.", example = "2023-07-25T12:00:00Z", format = "date-time", requiredMode = Schema.RequiredMode.REQUIRED)
     @NotNull(message = "Created at is required")
-    String createdAt
+    String createdAt,
+    @Schema(description = "Number of comments on the post, without loading them.", example = "12", requiredMode = Schema.RequiredMode.REQUIRED)
+    long commentCount
 ) {
-    public ResponsePostDTO(Post post) {
-        this(post.getId(), post.getUserId(), post.getTitle(), post.getBody(), post.isDraft(), post.getCreatedAt().toString());
+    public ResponsePostDTO(Post post, long commentCount) {
+        this(post.getId(), post.getUserId(), post.getTitle(), post.getBody(), post.isDraft(), post.getCreatedAt().toString(), commentCount);
     }
 }
\ No newline at end of file
@@ -0,0 +1,13 @@
+package com.blog.DataTransporter.Tags;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import org.springframework.data.annotation.Id;
+
+@Schema(description = "A tag and the number of posts carrying it.")
+public record TagCountDTO(
+        @Schema(description = "The tag.", example = "spring-boot", requiredMode = Schema.RequiredMode.REQUIRED)
+        @Id
+        String tag,
+        @Schema(description = "Number of posts tagged with it.", example = "42", requiredMode = Schema.RequiredMode.REQUIRED)
+        long count
+) { }
@@ -0,0 +1,7 @@
+package com.blog.Exception;
+
+public class CacheLoadTimeoutException extends RuntimeException {
+    public CacheLoadTimeoutException(String message) {
+        super(message);
+    }
+}
@@ -1,6 +1,7 @@
 package com.blog.ExceptionHandler;
 
 import com.blog.Exception.AuthenticationException;
+import com.blog.Exception.CacheLoadTimeoutException;
 import graphql.GraphQLError;
 import graphql.GraphqlErrorBuilder;
 import graphql.schema.DataFetchingEnvironment;
@@ -45,6 +46,7 @@ public class GraphQLExceptionHandler extends DataFetcherExceptionResolverAdapter
             case AuthenticationException ignored -> logger.warn(logMessage);
             case EntityNotFoundException ignored -> logger.warn(logMessage);
             case EntityExistsException ignored -> logger.warn(logMessage);
+            case CacheLoadTimeoutException ignored -> logger.warn(logMessage);
             default -> logger.error(logMessage, exception);
         }
     }
@@ -70,6 +72,10 @@ public class GraphQLExceptionHandler extends DataFetcherExceptionResolverAdapter
                 "A resource with these details already exists. Please use different values or check if the resource already exists.",
                 Map.of("code", "ALREADY_EXISTS", "type", "CONFLICT_ERROR")
             );
+            case CacheLoadTimeoutException ignored -> new ErrorInfo(
+                "The server is busy loading this resource. Please retry shortly.",
+                Map.of("code", "LOAD_TIMEOUT", "type", "UNAVAILABLE_ERROR")
+            );
             case RuntimeException runtimeException when runtimeException.getMessage() != null -> {
                 if (isDev) {
                     yield new ErrorInfo(
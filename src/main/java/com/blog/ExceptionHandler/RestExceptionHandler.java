@@ -2,6 +2,7 @@ package com.blog.ExceptionHandler;
 
 import com.blog.API.Response.ErrorResponse;
 import com.blog.Exception.AuthenticationException;
+import com.blog.Exception.CacheLoadTimeoutException;
 import jakarta.persistence.EntityExistsException;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.validation.ConstraintViolationException;
@@ -65,6 +66,12 @@ public class RestExceptionHandler extends ResponseEntityExceptionHandler {
         return ResponseEntity.badRequest().body(new ErrorResponse(HttpStatus.BAD_REQUEST, ex.getMessage()));
     }
 
+    @ExceptionHandler(CacheLoadTimeoutException.class)
+    public ResponseEntity<ErrorResponse> handleCacheLoadTimeout(CacheLoadTimeoutException e) {
+        log.warn("Cache load timed out: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(new ErrorResponse(HttpStatus.SERVICE_UNAVAILABLE, "The server is busy loading this resource, please retry shortly"));
+    }
+
     @ExceptionHandler(ResourceAccessException.class)
     public ResponseEntity<ErrorResponse> handleResourceNotFound(ResourceAccessException ex) {
         log.debug("Resource not found: {}", ex.getMessage());
@@ -34,6 +34,14 @@ public class Post {
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
+    public Post(Integer id, Integer userId, String title, String body, boolean draft, LocalDateTime createdAt) {
+        this(id, userId, title, body, draft, createdAt, null);
+    }
+
     @PrePersist
     protected void onCreate() {
         if (this.createdAt == null) {
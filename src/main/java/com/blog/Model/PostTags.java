@@ -5,6 +5,8 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
 
@@ -15,10 +17,13 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "post_tags")
+// Multikey on tags; the trailing postId lets tag queries walk it in cursor order without a sort stage
+@CompoundIndex(name = "tags_postId", def = "{'tags': 1, 'postId': -1}")
 public class PostTags {
     @Id
     private String id;
 
+    @Indexed(unique = true)
     @Field("postId")
     private Integer postId;
 
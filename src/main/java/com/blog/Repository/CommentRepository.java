@@ -2,10 +2,50 @@ package com.blog.Repository;
 
 import com.blog.Model.Comment;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface CommentRepository extends JpaRepository<Comment, Integer> {
+    // Adds each post's drift to one of its stripes, as seen by a single snapshot of both tables, so increments
+    // committed concurrently are neither lost nor counted twice
+    String REPAIR_COUNTS = "INSERT INTO post_comment_counts (post_id, stripe, count) " +
+            "SELECT p.id, 0, coalesce(a.actual, 0) - coalesce(s.stored, 0) FROM posts p " +
+            "LEFT JOIN (SELECT post_id, count(*) AS actual FROM comments GROUP BY post_id) a ON a.post_id = p.id " +
+            "LEFT JOIN (SELECT post_id, sum(count) AS stored FROM post_comment_counts GROUP BY post_id) s ON s.post_id = p.id " +
+            "WHERE coalesce(a.actual, 0) <> coalesce(s.stored, 0) " +
+            "ON CONFLICT (post_id, stripe) DO UPDATE SET count = post_comment_counts.count + EXCLUDED.count " +
+            "RETURNING post_id";
+
     List<Comment> findByPostId(Integer postId);
-    void deleteByPostId(Integer postId);
+    List<Comment> findByPostIdIn(Collection<Integer> postIds);
+    // Thread order, served straight off the (post_id, created_at, id) index
+    @Query(value = "SELECT * FROM comments WHERE post_id = :postId ORDER BY created_at, id LIMIT :limit", nativeQuery = true)
+    List<Comment> findFirstPage(@Param("postId") int postId, @Param("limit") int limit);
+    @Query(value = "SELECT * FROM comments WHERE post_id = :postId AND (created_at, id) > (:createdAt, :id) ORDER BY created_at, id LIMIT :limit", nativeQuery = true)
+    List<Comment> findPageAfter(@Param("postId") int postId, @Param("createdAt") LocalDateTime createdAt, @Param("id") int id, @Param("limit") int limit);
+    // One statement however many comments there are; a derived delete would load and delete them one by one
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM Comment c WHERE c.postId IN :postIds")
+    int deleteByPostIdIn(@Param("postIds") Collection<Integer> postIds);
+    @Modifying
+    @Query(value = "INSERT INTO post_comment_counts (post_id, stripe, count) VALUES (:postId, :stripe, :delta) " +
+            "ON CONFLICT (post_id, stripe) DO UPDATE SET count = post_comment_counts.count + EXCLUDED.count", nativeQuery = true)
+    void addToCommentCount(@Param("postId") int postId, @Param("stripe") int stripe, @Param("delta") int delta);
+    @Query(value = "SELECT post_id AS postId, sum(count)::bigint AS count FROM post_comment_counts WHERE post_id IN (:postIds) GROUP BY post_id", nativeQuery = true)
+    List<CommentCount> sumCommentCounts(@Param("postIds") Collection<Integer> postIds);
+    // Held until the transaction ends; keeps two instances from applying the same correction
+    @Query(value = "SELECT pg_try_advisory_xact_lock(hashtext('post_comment_counts'))", nativeQuery = true)
+    boolean tryLockCommentCounts();
+    @Query(value = REPAIR_COUNTS, nativeQuery = true)
+    List<Integer> repairCommentCounts();
+
+    interface CommentCount {
+        Integer getPostId();
+        Long getCount();
+    }
 }
@@ -1,6 +1,72 @@
 package com.blog.Repository;
 
+import com.blog.DataTransporter.Post.PostSummary;
 import com.blog.Model.Post;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-public interface PostRepository extends JpaRepository<Post, Integer> { }
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface PostRepository extends JpaRepository<Post, Integer> {
+    @Query("SELECT p.id FROM Post p ORDER BY p.id DESC")
+    List<Integer> findRecentIds(Pageable pageable);
+    @Query("SELECT p.id AS id, p.version AS version FROM Post p")
+    List<IdVersion> findVersions();
+    // Bypasses the version check deleteById would do; callers delete comments first
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM Post p WHERE p.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Integer> ids);
+    // Fetches one row past the page to tell whether there is a next one, and never runs a COUNT
+    Slice<Post> findSliceBy(Pageable pageable);
+    @Query(value = "SELECT new com.blog.DataTransporter.Post.PostSummary(p.id, p.userId, p.title, p.draft, p.createdAt, SUBSTRING(p.body, 1, " + PostSummary.EXCERPT_LENGTH + ")) FROM Post p",
+           countQuery = "SELECT COUNT(p) FROM Post p")
+    Page<PostSummary> findSummaries(Pageable pageable);
+    @Query("SELECT new com.blog.DataTransporter.Post.PostSummary(p.id, p.userId, p.title, p.draft, p.createdAt, SUBSTRING(p.body, 1, " + PostSummary.EXCERPT_LENGTH + ")) FROM Post p")
+    Slice<PostSummary> findSummarySliceBy(Pageable pageable);
+
+    // Full-text search over search_vector (GIN indexed). Ranks are compared as float8 so a cursor's rank
+    // matches exactly; ts_headline runs in the outer query, only for the rows that made the page.
+    @Query(value = "SELECT p.id AS id, p.user_id AS userId, p.title AS title, p.created_at AS createdAt, p.rank AS rank, " + HEADLINE + " AS snippet " +
+            "FROM (SELECT posts.*, ts_rank(search_vector, websearch_to_tsquery('english', :query))::float8 AS rank FROM posts " +
+            "WHERE search_vector @@ websearch_to_tsquery('english', :query) " +
+            "ORDER BY rank DESC, id DESC LIMIT :limit) p ORDER BY p.rank DESC, p.id DESC", nativeQuery = true)
+    List<SearchRow> search(@Param("query") String query, @Param("limit") int limit);
+    @Query(value = "SELECT p.id AS id, p.user_id AS userId, p.title AS title, p.created_at AS createdAt, p.rank AS rank, " + HEADLINE + " AS snippet " +
+            "FROM (SELECT posts.*, ts_rank(search_vector, websearch_to_tsquery('english', :query))::float8 AS rank FROM posts " +
+            "WHERE search_vector @@ websearch_to_tsquery('english', :query) " +
+            "AND (ts_rank(search_vector, websearch_to_tsquery('english', :query))::float8, id) < (:rank, :id) " +
+            "ORDER BY rank DESC, id DESC LIMIT :limit) p ORDER BY p.rank DESC, p.id DESC", nativeQuery = true)
+    List<SearchRow> searchAfter(@Param("query") String query, @Param("rank") double rank, @Param("id") int id, @Param("limit") int limit);
+
+    // Matches are marked with control characters rather than tags, so the body can be HTML-escaped afterwards
+    String HEADLINE = "ts_headline('english', p.body, websearch_to_tsquery('english', :query), " +
+            "'MaxFragments=2, MaxWords=20, MinWords=5, FragmentDelimiter=\" ... \", StartSel=\"' || chr(2) || '\", StopSel=\"' || chr(3) || '\"')";
+
+    interface IdVersion {
+        Integer getId();
+        Long getVersion();
+    }
+    interface SearchRow {
+        Integer getId();
+        Integer getUserId();
+        String getTitle();
+        LocalDateTime getCreatedAt();
+        Double getRank();
+        String getSnippet();
+    }
+
+    // Keyset reads over posts_created_at_id_idx; the row comparison lets Postgres seek straight to the cursor
+    @Query(value = "SELECT * FROM posts ORDER BY created_at DESC, id DESC LIMIT :limit", nativeQuery = true)
+    List<Post> findNewest(@Param("limit") int limit);
+    @Query(value = "SELECT * FROM posts WHERE (created_at, id) < (:createdAt, :id) ORDER BY created_at DESC, id DESC LIMIT :limit", nativeQuery = true)
+    List<Post> findOlderThan(@Param("createdAt") LocalDateTime createdAt, @Param("id") int id, @Param("limit") int limit);
+    @Query(value = "SELECT * FROM posts WHERE (created_at, id) > (:createdAt, :id) ORDER BY created_at, id LIMIT :limit", nativeQuery = true)
+    List<Post> findNewerThan(@Param("createdAt") LocalDateTime createdAt, @Param("id") int id, @Param("limit") int limit);
+}
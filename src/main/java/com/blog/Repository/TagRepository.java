@@ -1,11 +1,31 @@
 package com.blog.Repository;
 
+import com.blog.DataTransporter.Tags.TagCountDTO;
 import com.blog.Model.PostTags;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.mongodb.repository.Aggregation;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
-public interface TagRepository extends MongoRepository<PostTags, String> {
+public interface TagRepository extends MongoRepository<PostTags, String>, TagRepositoryCustom {
     Optional<PostTags> findByPostId(int postId);
-    void deleteByPostId(int postId);
+    List<PostTags> findByPostIdIn(Collection<Integer> postIds);
+    Slice<PostTags> findSliceBy(Pageable pageable);
+    // Only postId is read back; the page size comes from the Pageable
+    @Query(value = "{ 'tags': { $all: ?0 }, 'postId': { $lt: ?1 } }", fields = "{ 'postId': 1 }", sort = "{ 'postId': -1 }")
+    List<PostTags> findTaggedWithAll(Collection<String> tags, int beforePostId, Pageable pageable);
+    @Query(value = "{ 'tags': { $in: ?0 }, 'postId': { $lt: ?1 } }", fields = "{ 'postId': 1 }", sort = "{ 'postId': -1 }")
+    List<PostTags> findTaggedWithAny(Collection<String> tags, int beforePostId, Pageable pageable);
+    // Duplicate tags within one post count once
+    @Aggregation(pipeline = {
+            "{ $project: { tags: { $setUnion: [ { $ifNull: [ '$tags', [] ] }, [] ] } } }",
+            "{ $unwind: '$tags' }",
+            "{ $group: { _id: '$tags', count: { $sum: 1 } } }"
+    })
+    List<TagCountDTO> countPostsPerTag();
 }
@@ -0,0 +1,28 @@
+package com.blog.Repository;
+
+import com.blog.Model.PostTags;
+import org.springframework.lang.Nullable;
+
+import java.util.Collection;
+import java.util.List;
+
+// Tag writes as single atomic Mongo updates. Each returns the document as it was before and after the
+// update; either is null when the document didn't exist on that side of it.
+public interface TagRepositoryCustom {
+    TagChange replaceTags(int postId, List<String> tags);
+    TagChange addTags(int postId, Collection<String> tags);
+    // Deletes the document once its last tag is gone
+    TagChange removeTags(int postId, Collection<String> tags);
+    TagChange removeAllTags(int postId);
+    // Returns the removed documents; posts without tags are skipped
+    List<PostTags> removeAllTags(Collection<Integer> postIds);
+
+    record TagChange(@Nullable PostTags before, @Nullable PostTags after) {
+        public List<String> tagsBefore() {
+            return before == null || before.getTags() == null ? List.of() : before.getTags();
+        }
+        public List<String> tagsAfter() {
+            return after == null || after.getTags() == null ? List.of() : after.getTags();
+        }
+    }
+}
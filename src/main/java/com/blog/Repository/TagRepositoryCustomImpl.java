@@ -0,0 +1,74 @@
+package com.blog.Repository;
+
+import com.blog.Model.PostTags;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+// Every update reads back the document as it was before it, and derives the after state the same way
+// Mongo applied the operator. findAndModify makes that pair exact even under concurrent writes.
+class TagRepositoryCustomImpl implements TagRepositoryCustom {
+    private static final FindAndModifyOptions RETURN_OLD = FindAndModifyOptions.options().returnNew(false);
+
+    private final MongoTemplate mongoTemplate;
+
+    TagRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public TagChange replaceTags(int postId, List<String> tags) {
+        // Only used when the upsert inserts, so the new document's id is known without reading it back
+        ObjectId insertedId = new ObjectId();
+        Update update = Update.update("tags", tags).setOnInsert("_id", insertedId);
+        PostTags before = mongoTemplate.findAndModify(byPostId(postId), update, FindAndModifyOptions.options().upsert(true).returnNew(false), PostTags.class);
+        String id = before == null ? insertedId.toHexString() : before.getId();
+        return new TagChange(before, new PostTags(id, postId, List.copyOf(tags)));
+    }
+    @Override
+    public TagChange addTags(int postId, Collection<String> tags) {
+        Update update = new Update().addToSet("tags").each(tags.toArray());
+        PostTags before = mongoTemplate.findAndModify(byPostId(postId), update, RETURN_OLD, PostTags.class);
+        if (before == null) return new TagChange(null, null);
+        // $addToSet appends, in order, each tag not already present
+        List<String> after = new ArrayList<>(tagsOf(before));
+        for (String tag : tags) if (!after.contains(tag)) after.add(tag);
+        return new TagChange(before, new PostTags(before.getId(), postId, after));
+    }
+    @Override
+    public TagChange removeTags(int postId, Collection<String> tags) {
+        Update update = new Update().pull("tags", new Document("$in", List.copyOf(tags)));
+        PostTags before = mongoTemplate.findAndModify(byPostId(postId), update, RETURN_OLD, PostTags.class);
+        if (before == null) return new TagChange(null, null);
+        List<String> after = tagsOf(before).stream().filter(tag -> !tags.contains(tag)).toList();
+        if (!after.isEmpty()) return new TagChange(before, new PostTags(before.getId(), postId, after));
+        // Only matches while the array is still empty, so a tag added in between keeps the document
+        Query empty = byPostId(postId).addCriteria(Criteria.where("tags").size(0));
+        if (mongoTemplate.remove(empty, PostTags.class).getDeletedCount() > 0) return new TagChange(before, null);
+        return new TagChange(before, mongoTemplate.findOne(byPostId(postId), PostTags.class));
+    }
+    @Override
+    public TagChange removeAllTags(int postId) {
+        return new TagChange(mongoTemplate.findAndRemove(byPostId(postId), PostTags.class), null);
+    }
+    @Override
+    public List<PostTags> removeAllTags(Collection<Integer> postIds) {
+        // One find and one deleteMany by _id, whatever the number of posts
+        return mongoTemplate.findAllAndRemove(Query.query(Criteria.where("postId").in(postIds)), PostTags.class);
+    }
+
+    private static Query byPostId(int postId) {
+        return Query.query(Criteria.where("postId").is(postId));
+    }
+    private static List<String> tagsOf(PostTags document) {
+        return document.getTags() == null ? List.of() : document.getTags();
+    }
+}
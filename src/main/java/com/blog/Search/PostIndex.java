@@ -0,0 +1,411 @@
+package com.blog.Search;
+
+import com.blog.Model.Post;
+import com.blog.Utility.SearchCursor;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.lang.Nullable;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// In-process inverted index over post titles, bodies and tags, ranked with BM25. Title and tag occurrences
+// count as several body occurrences. A post that changes is appended as a new document and its old one
+// marked dead, so posting lists stay append-only; dead documents are compacted away once they make up
+// a third of the index.
+public class PostIndex {
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    private static final int TITLE_WEIGHT = 3;
+    private static final int TAG_WEIGHT = 2;
+    private static final int MAGIC = 0x424C4958;
+    private static final int FORMAT = 1;
+    private static final Comparator<Hit> BEST_FIRST = Comparator.comparing(Hit::score).thenComparing(Hit::postId).reversed();
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Integer> termIds = new HashMap<>();
+    private final List<String> terms = new ArrayList<>();
+    private final List<PostingList> postings = new ArrayList<>();
+    private int[] documentFrequencies = new int[256];
+    private final Map<Integer, Integer> docsByPost = new HashMap<>();
+    // Per document; text and tag terms are (term id, weighted frequency) pairs sorted by term id
+    private int[] postIds = new int[256];
+    private long[] versions = new long[256];
+    private int[] lengths = new int[256];
+    private int[] tagHashes = new int[256];
+    private int[][] textTerms = new int[256][];
+    private int[][] tagTerms = new int[256][];
+    private final BitSet live = new BitSet();
+    private int docCount;
+    private int liveCount;
+    private long totalLength;
+    private volatile boolean ready;
+    private final Timer queries;
+
+    public PostIndex(MeterRegistry registry) {
+        this.queries = Timer.builder("blog.search.query").tag("engine", "index").description("Time to rank a query against the in-process post index").publishPercentiles(0.5, 0.99).register(registry);
+        Gauge.builder("blog.search.index.documents", this, PostIndex::size).description("Posts in the in-process search index").register(registry);
+        Gauge.builder("blog.search.index.postings", this, PostIndex::postingBytes).baseUnit("bytes").description("Bytes held by posting lists").register(registry);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+    public void markReady() {
+        ready = true;
+    }
+
+    // Keeps the tags the post was last indexed with
+    public void index(Post post) {
+        lock.writeLock().lock();
+        try {
+            Integer doc = docsByPost.get(post.getId());
+            int[] tags = doc == null ? new int[0] : tagTerms[doc];
+            int tagHash = doc == null ? hashOf(List.of()) : tagHashes[doc];
+            add(post.getId(), versionOf(post), tagHash, textPairs(post), tags);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    public void index(Post post, List<String> tags) {
+        lock.writeLock().lock();
+        try {
+            add(post.getId(), versionOf(post), hashOf(tags), textPairs(post), tagPairs(tags));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    public void tagsChanged(int postId, List<String> tags) {
+        lock.writeLock().lock();
+        try {
+            Integer doc = docsByPost.get(postId);
+            if (doc == null) return;
+            add(postId, versions[doc], hashOf(tags), textTerms[doc], tagPairs(tags));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    public void remove(int postId) {
+        lock.writeLock().lock();
+        try {
+            removeDoc(postId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Matches any query term; hits come best first and, given a cursor, strictly after it
+    public List<Hit> search(String query, @Nullable SearchCursor after, int limit) {
+        long started = System.nanoTime();
+        lock.readLock().lock();
+        try {
+            if (liveCount == 0 || limit < 1) return List.of();
+            float averageLength = (float) totalLength / liveCount;
+            float[] scores = new float[docCount];
+            BitSet touched = new BitSet(docCount);
+            for (String term : new LinkedHashSet<>(Tokenizer.tokens(query))) {
+                Integer termId = termIds.get(term);
+                if (termId == null || documentFrequencies[termId] == 0) continue;
+                int frequencyInIndex = documentFrequencies[termId];
+                float idf = (float) Math.log(1 + (liveCount - frequencyInIndex + 0.5) / (frequencyInIndex + 0.5));
+                postings.get(termId).forEach((doc, frequency) -> {
+                    if (!live.get(doc)) return;
+                    float norm = K1 * (1 - B + B * lengths[doc] / averageLength);
+                    scores[doc] += idf * frequency * (K1 + 1) / (frequency + norm);
+                    touched.set(doc);
+                });
+            }
+            // Min-heap on the ranking, so the head is always the weakest of the best hits seen so far
+            PriorityQueue<Hit> best = new PriorityQueue<>(limit + 1, BEST_FIRST.reversed());
+            for (int doc = touched.nextSetBit(0); doc >= 0; doc = touched.nextSetBit(doc + 1)) {
+                Hit hit = new Hit(postIds[doc], scores[doc]);
+                if (after != null && !(hit.score() < after.rank() || (hit.score() == after.rank() && hit.postId() < after.id()))) continue;
+                best.add(hit);
+                if (best.size() > limit) best.poll();
+            }
+            List<Hit> hits = new ArrayList<>(best);
+            hits.sort(BEST_FIRST);
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+            queries.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return liveCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    // Post id to the version it was indexed at, for catching up with writes made while the snapshot was on disk
+    public Map<Integer, Long> versions() {
+        lock.readLock().lock();
+        try {
+            Map<Integer, Long> indexed = new HashMap<>(docsByPost.size() * 2);
+            docsByPost.forEach((postId, doc) -> indexed.put(postId, versions[doc]));
+            return indexed;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    public boolean hasTags(int postId, List<String> tags) {
+        lock.readLock().lock();
+        try {
+            Integer doc = docsByPost.get(postId);
+            return doc != null && tagHashes[doc] == hashOf(tags);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            termIds.clear();
+            terms.clear();
+            postings.clear();
+            documentFrequencies = new int[256];
+            docsByPost.clear();
+            postIds = new int[256];
+            versions = new long[256];
+            lengths = new int[256];
+            tagHashes = new int[256];
+            textTerms = new int[256][];
+            tagTerms = new int[256][];
+            live.clear();
+            docCount = 0;
+            liveCount = 0;
+            totalLength = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Written to a temporary file first, so a crash mid-write leaves the previous snapshot intact
+    public void writeTo(Path file) throws IOException {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        lock.readLock().lock();
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT);
+            out.writeInt(terms.size());
+            for (int termId = 0; termId < terms.size(); termId++) {
+                out.writeUTF(terms.get(termId));
+                out.writeInt(documentFrequencies[termId]);
+                postings.get(termId).write(out);
+            }
+            out.writeInt(docCount);
+            for (int doc = 0; doc < docCount; doc++) {
+                out.writeBoolean(live.get(doc));
+                if (!live.get(doc)) continue;
+                out.writeInt(postIds[doc]);
+                out.writeLong(versions[doc]);
+                out.writeInt(tagHashes[doc]);
+                out.writeInt(lengths[doc]);
+                writePairs(out, textTerms[doc]);
+                writePairs(out, tagTerms[doc]);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+    public void readFrom(Path file) throws IOException {
+        lock.writeLock().lock();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            clear();
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT) throw new IOException("Not a post index snapshot: " + file);
+            int termCount = in.readInt();
+            documentFrequencies = new int[Math.max(256, termCount)];
+            for (int termId = 0; termId < termCount; termId++) {
+                String term = in.readUTF();
+                termIds.put(term, termId);
+                terms.add(term);
+                documentFrequencies[termId] = in.readInt();
+                postings.add(PostingList.read(in));
+            }
+            int documents = in.readInt();
+            grow(documents);
+            for (int doc = 0; doc < documents; doc++) {
+                if (!in.readBoolean()) continue;
+                postIds[doc] = in.readInt();
+                versions[doc] = in.readLong();
+                tagHashes[doc] = in.readInt();
+                lengths[doc] = in.readInt();
+                textTerms[doc] = readPairs(in);
+                tagTerms[doc] = readPairs(in);
+                live.set(doc);
+                docsByPost.put(postIds[doc], doc);
+                liveCount++;
+                totalLength += lengths[doc];
+            }
+            docCount = documents;
+        } catch (IOException | RuntimeException e) {
+            clear();
+            throw e instanceof IOException io ? io : new IOException("Corrupt post index snapshot: " + file, e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void add(int postId, long version, int tagHash, int[] text, int[] tags) {
+        Integer previous = docsByPost.get(postId);
+        // A rebuild racing a live write must not put back an older version of the post
+        if (previous != null && versions[previous] > version) return;
+        removeDoc(postId);
+        int doc = docCount++;
+        grow(docCount);
+        int[] merged = merge(text, tags);
+        int length = 0;
+        for (int i = 0; i < merged.length; i += 2) {
+            postings.get(merged[i]).add(doc, merged[i + 1]);
+            documentFrequencies[merged[i]]++;
+            length += merged[i + 1];
+        }
+        postIds[doc] = postId;
+        versions[doc] = version;
+        lengths[doc] = length;
+        tagHashes[doc] = tagHash;
+        textTerms[doc] = text;
+        tagTerms[doc] = tags;
+        live.set(doc);
+        docsByPost.put(postId, doc);
+        liveCount++;
+        totalLength += length;
+        if (docCount - liveCount > Math.max(1024, liveCount / 2)) compact();
+    }
+    private void removeDoc(int postId) {
+        Integer doc = docsByPost.remove(postId);
+        if (doc == null) return;
+        int[] merged = merge(textTerms[doc], tagTerms[doc]);
+        for (int i = 0; i < merged.length; i += 2) documentFrequencies[merged[i]]--;
+        live.clear(doc);
+        liveCount--;
+        totalLength -= lengths[doc];
+        textTerms[doc] = null;
+        tagTerms[doc] = null;
+    }
+    private void compact() {
+        int[] newDocs = new int[docCount];
+        int next = 0;
+        for (int doc = 0; doc < docCount; doc++) newDocs[doc] = live.get(doc) ? next++ : -1;
+        postings.replaceAll(list -> list.remap(newDocs));
+        for (int doc = 0; doc < docCount; doc++) {
+            int target = newDocs[doc];
+            if (target < 0 || target == doc) continue;
+            postIds[target] = postIds[doc];
+            versions[target] = versions[doc];
+            lengths[target] = lengths[doc];
+            tagHashes[target] = tagHashes[doc];
+            textTerms[target] = textTerms[doc];
+            tagTerms[target] = tagTerms[doc];
+        }
+        Arrays.fill(textTerms, next, docCount, null);
+        Arrays.fill(tagTerms, next, docCount, null);
+        live.clear();
+        live.set(0, next);
+        docsByPost.clear();
+        for (int doc = 0; doc < next; doc++) docsByPost.put(postIds[doc], doc);
+        docCount = next;
+    }
+    private void grow(int documents) {
+        if (documents <= postIds.length) return;
+        int capacity = Math.max(documents, postIds.length * 2);
+        postIds = Arrays.copyOf(postIds, capacity);
+        versions = Arrays.copyOf(versions, capacity);
+        lengths = Arrays.copyOf(lengths, capacity);
+        tagHashes = Arrays.copyOf(tagHashes, capacity);
+        textTerms = Arrays.copyOf(textTerms, capacity);
+        tagTerms = Arrays.copyOf(tagTerms, capacity);
+    }
+
+    private int[] textPairs(Post post) {
+        Map<Integer, Integer> frequencies = new HashMap<>();
+        for (String token : Tokenizer.tokens(post.getTitle())) frequencies.merge(termId(token), TITLE_WEIGHT, Integer::sum);
+        for (String token : Tokenizer.tokens(post.getBody())) frequencies.merge(termId(token), 1, Integer::sum);
+        return pairs(frequencies);
+    }
+    private int[] tagPairs(List<String> tags) {
+        Map<Integer, Integer> frequencies = new HashMap<>();
+        for (String tag : tags) {
+            for (String token : Tokenizer.tokens(tag)) frequencies.merge(termId(token), TAG_WEIGHT, Integer::sum);
+        }
+        return pairs(frequencies);
+    }
+    private int termId(String term) {
+        Integer existing = termIds.get(term);
+        if (existing != null) return existing;
+        int termId = terms.size();
+        termIds.put(term, termId);
+        terms.add(term);
+        postings.add(new PostingList());
+        if (termId >= documentFrequencies.length) documentFrequencies = Arrays.copyOf(documentFrequencies, documentFrequencies.length * 2);
+        return termId;
+    }
+    private static int[] pairs(Map<Integer, Integer> frequencies) {
+        int[] termIds = frequencies.keySet().stream().mapToInt(Integer::intValue).sorted().toArray();
+        int[] pairs = new int[termIds.length * 2];
+        for (int i = 0; i < termIds.length; i++) {
+            pairs[2 * i] = termIds[i];
+            pairs[2 * i + 1] = frequencies.get(termIds[i]);
+        }
+        return pairs;
+    }
+    // Sums frequencies of terms present in both
+    private static int[] merge(int[] left, int[] right) {
+        int[] merged = new int[left.length + right.length];
+        int i = 0, j = 0, k = 0;
+        while (i < left.length || j < right.length) {
+            if (j >= right.length || (i < left.length && left[i] < right[j])) {
+                merged[k++] = left[i++];
+                merged[k++] = left[i++];
+            } else if (i >= left.length || right[j] < left[i]) {
+                merged[k++] = right[j++];
+                merged[k++] = right[j++];
+            } else {
+                merged[k++] = left[i];
+                merged[k++] = left[i + 1] + right[j + 1];
+                i += 2;
+                j += 2;
+            }
+        }
+        return Arrays.copyOf(merged, k);
+    }
+    private static long versionOf(Post post) {
+        return post.getVersion() == null ? 0 : post.getVersion();
+    }
+    private static int hashOf(List<String> tags) {
+        return tags == null ? 0 : tags.hashCode();
+    }
+    private int postingBytes() {
+        lock.readLock().lock();
+        try {
+            int bytes = 0;
+            for (PostingList list : postings) bytes += list.sizeInBytes();
+            return bytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    private static void writePairs(DataOutput out, int[] pairs) throws IOException {
+        out.writeInt(pairs.length);
+        for (int value : pairs) out.writeInt(value);
+    }
+    private static int[] readPairs(DataInput in) throws IOException {
+        int length = in.readInt();
+        if (length < 0 || length % 2 != 0) throw new IOException("Corrupt term list length: " + length);
+        int[] pairs = new int[length];
+        for (int i = 0; i < length; i++) pairs[i] = in.readInt();
+        return pairs;
+    }
+
+    public record Hit(int postId, float score) { }
+}
@@ -0,0 +1,151 @@
+package com.blog.Search;
+
+import com.blog.Cache.CacheInvalidationBus;
+import com.blog.Config.SearchProperties;
+import com.blog.Model.Post;
+import com.blog.Model.PostTags;
+import com.blog.Repository.PostRepository;
+import com.blog.Repository.TagRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+// Fills the PostIndex before the application reports ready: from the snapshot when there is one, catching
+// up on posts whose version changed and tags that differ since it was written, otherwise from scratch.
+// Until then PostService keeps searching Postgres. Posts and tags written on other instances are re-read when
+// the invalidation bus announces them; those announced while the index is still filling are replayed after.
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnProperty(prefix = "blog.search", name = "engine", havingValue = "index")
+public class PostIndexer implements ApplicationRunner {
+    private static final Logger logger = LoggerFactory.getLogger(PostIndexer.class);
+    private static final int BATCH_SIZE = 500;
+
+    private final PostIndex index;
+    private final PostRepository postRepository;
+    private final TagRepository tagRepository;
+    private final Path snapshot;
+    // Peer changes announced before the index was ready; a null key stands for all posts
+    private final Set<Integer> missed = new HashSet<>();
+    private boolean resync;
+
+    public PostIndexer(PostIndex index, PostRepository postRepository, TagRepository tagRepository, SearchProperties properties, ObjectProvider<CacheInvalidationBus> invalidationBus) {
+        this.index = index;
+        this.postRepository = postRepository;
+        this.tagRepository = tagRepository;
+        this.snapshot = properties.getSnapshot().isBlank() ? null : Path.of(properties.getSnapshot());
+        invalidationBus.ifAvailable(bus -> {
+            bus.onPeerChange("Post.findById", this::peerChanged);
+            bus.onPeerChange("PostTags.findByPostId", this::peerChanged);
+        });
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long started = System.nanoTime();
+        boolean restored = restore();
+        if (restored) catchUp(allTags());
+        else build(allTags());
+        List<Integer> replayed;
+        boolean resynced;
+        synchronized (this) {
+            index.markReady();
+            replayed = List.copyOf(missed);
+            resynced = resync;
+            missed.clear();
+        }
+        if (resynced) catchUp(allTags());
+        else if (!replayed.isEmpty()) refresh(replayed);
+        logger.info("Post index {} with {} posts in {}ms", restored ? "restored" : "built", index.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        if (!restored) save();
+    }
+    @PreDestroy
+    public void save() {
+        if (snapshot == null || !index.isReady()) return;
+        try {
+            index.writeTo(snapshot);
+        } catch (IOException e) {
+            logger.warn("Failed to write post index snapshot {}: {}", snapshot, e.getMessage());
+        }
+    }
+
+    private void peerChanged(@Nullable Object key) {
+        synchronized (this) {
+            if (!index.isReady()) {
+                if (key instanceof Integer postId) missed.add(postId);
+                else resync = true;
+                return;
+            }
+        }
+        if (key instanceof Integer postId) refresh(List.of(postId));
+        else catchUp(allTags());
+    }
+    private void refresh(Collection<Integer> postIds) {
+        Map<Integer, List<String>> tags = new HashMap<>();
+        for (PostTags postTags : tagRepository.findByPostIdIn(postIds)) tags.put(postTags.getPostId(), postTags.getTags());
+        Set<Integer> deleted = new HashSet<>(postIds);
+        for (Post post : postRepository.findAllById(postIds)) {
+            deleted.remove(post.getId());
+            index.index(post, tags.getOrDefault(post.getId(), List.of()));
+        }
+        deleted.forEach(index::remove);
+    }
+    private Map<Integer, List<String>> allTags() {
+        Map<Integer, List<String>> tags = new HashMap<>();
+        for (PostTags postTags : tagRepository.findAll()) tags.put(postTags.getPostId(), postTags.getTags());
+        return tags;
+    }
+
+    private boolean restore() {
+        if (snapshot == null || !Files.exists(snapshot)) return false;
+        try {
+            index.readFrom(snapshot);
+            return true;
+        } catch (IOException e) {
+            logger.warn("Ignoring post index snapshot {}: {}", snapshot, e.getMessage());
+            return false;
+        }
+    }
+    private void build(Map<Integer, List<String>> tags) {
+        Slice<Post> slice = postRepository.findSliceBy(PageRequest.of(0, BATCH_SIZE, Sort.by("id")));
+        while (true) {
+            for (Post post : slice) index.index(post, tags.getOrDefault(post.getId(), List.of()));
+            if (!slice.hasNext()) break;
+            slice = postRepository.findSliceBy(slice.nextPageable());
+        }
+    }
+    private void catchUp(Map<Integer, List<String>> tags) {
+        Map<Integer, Long> indexed = index.versions();
+        List<Integer> stale = new ArrayList<>();
+        for (PostRepository.IdVersion current : postRepository.findVersions()) {
+            Long version = indexed.remove(current.getId());
+            if (version == null || !version.equals(current.getVersion())) stale.add(current.getId());
+            else if (!index.hasTags(current.getId(), tags.getOrDefault(current.getId(), List.of()))) index.tagsChanged(current.getId(), tags.getOrDefault(current.getId(), List.of()));
+        }
+        // Whatever is left was deleted while the snapshot sat on disk
+        indexed.keySet().forEach(index::remove);
+        for (int from = 0; from < stale.size(); from += BATCH_SIZE) {
+            for (Post post : postRepository.findAllById(stale.subList(from, Math.min(stale.size(), from + BATCH_SIZE)))) {
+                index.index(post, tags.getOrDefault(post.getId(), List.of()));
+            }
+        }
+        logger.info("Post index caught up: {} posts re-indexed, {} removed", stale.size(), indexed.size());
+    }
+}
@@ -0,0 +1,94 @@
+package com.blog.Search;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+// Ascending document numbers, each stored as a varint gap from the previous one followed by a varint term
+// frequency. Typical postings take two or three bytes instead of a boxed Integer pair. Documents are only
+// ever appended, which is why PostIndex gives a re-indexed post a new document number.
+final class PostingList {
+    private byte[] bytes;
+    private int length;
+    private int lastDoc;
+
+    PostingList() {
+        this(new byte[8], 0, -1);
+    }
+    private PostingList(byte[] bytes, int length, int lastDoc) {
+        this.bytes = bytes;
+        this.length = length;
+        this.lastDoc = lastDoc;
+    }
+
+    void add(int doc, int frequency) {
+        if (doc <= lastDoc) throw new IllegalArgumentException("Documents must be added in ascending order: " + doc + " after " + lastDoc);
+        if (length + 10 > bytes.length) bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + 10));
+        writeVarInt(doc - lastDoc);
+        writeVarInt(frequency);
+        lastDoc = doc;
+    }
+    void forEach(Visitor visitor) {
+        int offset = 0;
+        int doc = -1;
+        while (offset < length) {
+            int gap = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = bytes[offset++];
+                gap |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            int frequency = 0;
+            shift = 0;
+            do {
+                b = bytes[offset++];
+                frequency |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            doc += gap;
+            visitor.visit(doc, frequency);
+        }
+    }
+    // Renumbers documents; those mapped to -1 are dropped
+    PostingList remap(int[] newDocs) {
+        PostingList remapped = new PostingList();
+        forEach((doc, frequency) -> {
+            if (newDocs[doc] >= 0) remapped.add(newDocs[doc], frequency);
+        });
+        remapped.bytes = Arrays.copyOf(remapped.bytes, remapped.length);
+        return remapped;
+    }
+    int sizeInBytes() {
+        return bytes.length;
+    }
+
+    void write(DataOutput out) throws IOException {
+        out.writeInt(lastDoc);
+        out.writeInt(length);
+        out.write(bytes, 0, length);
+    }
+    static PostingList read(DataInput in) throws IOException {
+        int lastDoc = in.readInt();
+        int length = in.readInt();
+        if (length < 0) throw new IOException("Corrupt posting list length: " + length);
+        byte[] bytes = new byte[Math.max(length, 8)];
+        in.readFully(bytes, 0, length);
+        return new PostingList(bytes, length, lastDoc);
+    }
+
+    private void writeVarInt(int value) {
+        while ((value & ~0x7F) != 0) {
+            bytes[length++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        bytes[length++] = (byte) value;
+    }
+
+    @FunctionalInterface
+    interface Visitor {
+        void visit(int doc, int frequency);
+    }
+}
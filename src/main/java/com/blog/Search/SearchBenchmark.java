@@ -0,0 +1,78 @@
+package com.blog.Search;
+
+import com.blog.Config.SearchProperties;
+import com.blog.Repository.PostRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.function.IntFunction;
+
+// Runs the configured queries against both search paths on startup and logs latency percentiles and how
+// much their top results agree. Both sides produce a ranked page of ids; the Postgres side also renders
+// headlines, as it does when serving a search, while the index side leaves snippets to the caller.
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE)
+@ConditionalOnProperty(prefix = "blog.search.benchmark", name = "enabled", havingValue = "true")
+public class SearchBenchmark implements ApplicationRunner {
+    private static final Logger logger = LoggerFactory.getLogger(SearchBenchmark.class);
+    private static final int WARM_UP_ITERATIONS = 20;
+
+    private final PostRepository postRepository;
+    private final ObjectProvider<PostIndex> postIndex;
+    private final SearchProperties.Benchmark benchmark;
+
+    public SearchBenchmark(PostRepository postRepository, ObjectProvider<PostIndex> postIndex, SearchProperties properties) {
+        this.postRepository = postRepository;
+        this.postIndex = postIndex;
+        this.benchmark = properties.getBenchmark();
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        PostIndex index = postIndex.getIfAvailable();
+        if (index == null || !index.isReady()) {
+            logger.warn("Search benchmark skipped: blog.search.engine=index is required for the in-process index to be built");
+            return;
+        }
+        int limit = benchmark.getLimit();
+        for (String query : benchmark.getQueries()) {
+            String normalized = query.trim().toLowerCase(Locale.ROOT);
+            long[] postgres = measure(i -> postgresIds(normalized, limit));
+            long[] inProcess = measure(i -> indexIds(index, normalized, limit));
+            Set<Integer> overlap = new HashSet<>(postgresIds(normalized, limit));
+            overlap.retainAll(indexIds(index, normalized, limit));
+            logger.info("Search benchmark \"{}\": postgres p50={}us p99={}us, index p50={}us p99={}us, top {} overlap {}",
+                    query, micros(postgres, 0.5), micros(postgres, 0.99), micros(inProcess, 0.5), micros(inProcess, 0.99), limit, overlap.size());
+        }
+    }
+
+    private List<Integer> postgresIds(String query, int limit) {
+        return postRepository.search(query, limit).stream().map(PostRepository.SearchRow::getId).toList();
+    }
+    private List<Integer> indexIds(PostIndex index, String query, int limit) {
+        return index.search(query, null, limit).stream().map(PostIndex.Hit::postId).toList();
+    }
+    private long[] measure(IntFunction<List<Integer>> search) {
+        for (int i = 0; i < WARM_UP_ITERATIONS; i++) search.apply(i);
+        long[] nanos = new long[benchmark.getIterations()];
+        for (int i = 0; i < nanos.length; i++) {
+            long started = System.nanoTime();
+            search.apply(i);
+            nanos[i] = System.nanoTime() - started;
+        }
+        Arrays.sort(nanos);
+        return nanos;
+    }
+    private long micros(long[] sortedNanos, double percentile) {
+        if (sortedNanos.length == 0) return 0;
+        return sortedNanos[(int) Math.min(sortedNanos.length - 1, Math.ceil(percentile * sortedNanos.length) - 1)] / 1_000;
+    }
+}
@@ -0,0 +1,167 @@
+package com.blog.Search;
+
+import com.blog.DataTransporter.Tags.TagCountDTO;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Case-insensitive prefix tree over the tag vocabulary. Every node keeps the best MAX_COMPLETIONS tags
+// below it, so a completion is a walk down the prefix and returns a list that already exists; nothing
+// is searched or sorted at read time. Writes recompute those lists only along the path of the changed
+// tag. Children are kept in parallel sorted arrays instead of maps to keep nodes small.
+public class TagTrie {
+    public static final int MAX_COMPLETIONS = 10;
+    private static final Comparator<TagCountDTO> MOST_USED_FIRST = Comparator.comparingLong(TagCountDTO::count).reversed().thenComparing(TagCountDTO::tag);
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Node root = new Node();
+    private int nodes = 1;
+
+    public List<TagCountDTO> complete(String prefix, int limit) {
+        String key = prefix.toLowerCase(Locale.ROOT);
+        lock.readLock().lock();
+        try {
+            Node node = root;
+            for (int i = 0; i < key.length() && node != null; i++) node = node.child(key.charAt(i));
+            if (node == null) return List.of();
+            return node.top.size() <= limit ? node.top : node.top.subList(0, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // A count of zero removes the tag
+    public void put(String tag, long count) {
+        String key = tag.toLowerCase(Locale.ROOT);
+        lock.writeLock().lock();
+        try {
+            Node[] path = new Node[key.length() + 1];
+            path[0] = root;
+            for (int i = 0; i < key.length(); i++) {
+                Node next = path[i].child(key.charAt(i));
+                if (next == null) {
+                    if (count <= 0) return;
+                    next = path[i].addChild(key.charAt(i));
+                    nodes++;
+                }
+                path[i + 1] = next;
+            }
+            Node leaf = path[key.length()];
+            leaf.terminals = leaf.terminals.stream().filter(entry -> !entry.tag().equals(tag)).toList();
+            if (count > 0) leaf.terminals = concat(leaf.terminals, new TagCountDTO(tag, count));
+            for (int i = key.length(); i >= 0; i--) {
+                Node node = path[i];
+                node.top = topOf(node);
+                // Prune the branch the removed tag leaves empty
+                if (i > 0 && node.isEmpty()) {
+                    path[i - 1].removeChild(key.charAt(i - 1));
+                    nodes--;
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    // Builds the replacement off to the side, so readers only wait for the swap
+    public void replaceAll(Map<String, Long> counts) {
+        Node replacement = new Node();
+        int replacementNodes = 1;
+        for (Map.Entry<String, Long> entry : counts.entrySet()) {
+            if (entry.getValue() <= 0) continue;
+            String key = entry.getKey().toLowerCase(Locale.ROOT);
+            Node node = replacement;
+            for (int i = 0; i < key.length(); i++) {
+                Node next = node.child(key.charAt(i));
+                if (next == null) {
+                    next = node.addChild(key.charAt(i));
+                    replacementNodes++;
+                }
+                node = next;
+            }
+            node.terminals = concat(node.terminals, new TagCountDTO(entry.getKey(), entry.getValue()));
+        }
+        computeTops(replacement);
+        lock.writeLock().lock();
+        try {
+            root = replacement;
+            nodes = replacementNodes;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    public int nodeCount() {
+        lock.readLock().lock();
+        try {
+            return nodes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Iterative post-order, since tags can be long enough to make recursion depth a concern
+    private void computeTops(Node start) {
+        Deque<Node> pending = new ArrayDeque<>();
+        Deque<Node> finished = new ArrayDeque<>();
+        pending.push(start);
+        while (!pending.isEmpty()) {
+            Node node = pending.pop();
+            finished.push(node);
+            for (int i = 0; i < node.size; i++) pending.push(node.children[i]);
+        }
+        while (!finished.isEmpty()) {
+            Node node = finished.pop();
+            node.top = topOf(node);
+        }
+    }
+    private static List<TagCountDTO> topOf(Node node) {
+        List<TagCountDTO> candidates = new ArrayList<>(node.terminals);
+        for (int i = 0; i < node.size; i++) candidates.addAll(node.children[i].top);
+        if (candidates.isEmpty()) return List.of();
+        candidates.sort(MOST_USED_FIRST);
+        return List.copyOf(candidates.size() <= MAX_COMPLETIONS ? candidates : candidates.subList(0, MAX_COMPLETIONS));
+    }
+    private static List<TagCountDTO> concat(List<TagCountDTO> entries, TagCountDTO entry) {
+        List<TagCountDTO> combined = new ArrayList<>(entries);
+        combined.add(entry);
+        return List.copyOf(combined);
+    }
+
+    private static final class Node {
+        private char[] labels = new char[0];
+        private Node[] children = new Node[0];
+        private int size;
+        // Tags ending here; more than one only when they differ in case
+        private List<TagCountDTO> terminals = List.of();
+        private List<TagCountDTO> top = List.of();
+
+        Node child(char label) {
+            int index = Arrays.binarySearch(labels, 0, size, label);
+            return index < 0 ? null : children[index];
+        }
+        Node addChild(char label) {
+            int index = -Arrays.binarySearch(labels, 0, size, label) - 1;
+            if (size == labels.length) {
+                int capacity = Math.max(2, size * 2);
+                labels = Arrays.copyOf(labels, capacity);
+                children = Arrays.copyOf(children, capacity);
+            }
+            System.arraycopy(labels, index, labels, index + 1, size - index);
+            System.arraycopy(children, index, children, index + 1, size - index);
+            Node child = new Node();
+            labels[index] = label;
+            children[index] = child;
+            size++;
+            return child;
+        }
+        void removeChild(char label) {
+            int index = Arrays.binarySearch(labels, 0, size, label);
+            if (index < 0) return;
+            System.arraycopy(labels, index + 1, labels, index, size - index - 1);
+            System.arraycopy(children, index + 1, children, index, size - index - 1);
+            children[--size] = null;
+        }
+        boolean isEmpty() {
+            return size == 0 && terminals.isEmpty();
+        }
+    }
+}
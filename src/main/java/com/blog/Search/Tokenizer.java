@@ -0,0 +1,56 @@
+package com.blog.Search;
+
+import org.springframework.web.util.HtmlUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Lower-cased runs of letters and digits, minus English stop words. There is no stemming, so "caching"
+// doesn't match "cache" the way it does in the Postgres english configuration.
+public final class Tokenizer {
+    private static final Pattern TOKEN = Pattern.compile("[\\p{L}\\p{N}]+");
+    private static final int MAX_TOKEN_LENGTH = 64;
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "but", "by", "for", "if", "in", "into", "is", "it", "no", "not",
+            "of", "on", "or", "such", "that", "the", "their", "then", "there", "these", "they", "this", "to", "was", "will", "with"
+    );
+
+    private Tokenizer() { }
+
+    public static List<String> tokens(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) return tokens;
+        Matcher matcher = TOKEN.matcher(text);
+        while (matcher.find()) {
+            String token = normalize(matcher.group());
+            if (token != null) tokens.add(token);
+        }
+        return tokens;
+    }
+    // HTML-escapes the text and wraps every token that normalizes to one of the terms in <mark> tags
+    public static String highlight(String text, Set<String> terms) {
+        if (text == null) return "";
+        StringBuilder html = new StringBuilder(text.length() + 32);
+        Matcher matcher = TOKEN.matcher(text);
+        int end = 0;
+        while (matcher.find()) {
+            html.append(HtmlUtils.htmlEscape(text.substring(end, matcher.start())));
+            String token = matcher.group();
+            String normalized = normalize(token);
+            if (normalized != null && terms.contains(normalized)) html.append("<mark>").append(HtmlUtils.htmlEscape(token)).append("</mark>");
+            else html.append(HtmlUtils.htmlEscape(token));
+            end = matcher.end();
+        }
+        return html.append(HtmlUtils.htmlEscape(text.substring(end))).toString();
+    }
+
+    private static String normalize(String token) {
+        if (token.length() > MAX_TOKEN_LENGTH) return null;
+        String lowered = token.toLowerCase(Locale.ROOT);
+        return STOP_WORDS.contains(lowered) ? null : lowered;
+    }
+}
@@ -1,5 +1,7 @@
 package com.blog.Service;
 
+import com.blog.Cache.BatchCacheReader;
+import com.blog.Cache.KeysetPagedCache;
 import com.blog.Model.Post;
 import com.blog.Model.User;
 import com.blog.Repository.CommentRepository;
@@ -7,37 +9,99 @@ import com.blog.DataTransporter.Comment.CreateCommentDTO;
 import com.blog.DataTransporter.Comment.UpdateCommentDTO;
 import com.blog.Model.Comment;
 
-import java.util.List;
-import java.util.Objects;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
 
 import com.blog.Repository.PostRepository;
 import com.blog.Repository.UserRepository;
+import com.blog.Utility.CommentCursor;
+import com.blog.Utility.CursorPage;
+import com.blog.Utility.TransactionCallbacks;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.persistence.EntityNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Caching;
 
 @Service
 public class CommentService {
+    private static final Logger logger = LoggerFactory.getLogger(CommentService.class);
+    // Rows per post in post_comment_counts; concurrent comments on one post mostly land on different rows
+    private static final int COUNT_STRIPES = 8;
+
     UserRepository userRepository;
     PostRepository postRepository;
     CommentRepository repository;
+    KeysetPagedCache pages;
+    Cache counts;
+    BatchCacheReader<Integer, List<Comment>> byPostIds;
+    BatchCacheReader<Integer, Long> countsByPostIds;
+    Counter repaired;
 
-    public CommentService(UserRepository userRepository, PostRepository postRepository, CommentRepository repository) {
+    public CommentService(UserRepository userRepository, PostRepository postRepository, CommentRepository repository, CacheManager cacheManager, MeterRegistry meterRegistry) {
         this.userRepository = userRepository;
         this.postRepository = postRepository;
         this.repository = repository;
+        this.pages = KeysetPagedCache.from(cacheManager, "Comment.findPage");
+        this.counts = Objects.requireNonNull(cacheManager.getCache("Post.commentCount"));
+        this.byPostIds = new BatchCacheReader<>(Objects.requireNonNull(cacheManager.getCache("Comment.findByPostId")), List.of(), meterRegistry);
+        this.countsByPostIds = new BatchCacheReader<>(counts, 0L, meterRegistry);
+        this.repaired = Counter.builder("blog.comments.count.repaired").description("Per-post comment counts corrected by the repair job").register(meterRegistry);
     }
-    @Cacheable(cacheNames = "Comment.findByPostId", key = "#ID")
+    @Cacheable(cacheNames = "Comment.findByPostId", key = "#ID", sync = true)
     public List<Comment> findByPostId(int ID) {
         return repository.findByPostId(ID);
     }
+    // Oldest first; each page is cached on its own, so a thread's first page survives comments added at its end
+    @Cacheable(cacheNames = "Comment.findPage", key = "{#postId, #cursor == null ? '' : #cursor.encode(), #size}", sync = true)
+    public CursorPage<Comment> findPage(int postId, @Nullable CommentCursor cursor, int size) {
+        if (size < 1) throw new IllegalArgumentException("Page size must be at least 1");
+        List<Comment> rows = cursor == null ? repository.findFirstPage(postId, size + 1) : repository.findPageAfter(postId, cursor.createdAt(), cursor.id(), size + 1);
+        boolean hasNext = rows.size() > size;
+        List<Comment> items = List.copyOf(hasNext ? rows.subList(0, size) : rows);
+        String next = hasNext ? CommentCursor.of(items.getLast()).encode() : null;
+        return new CursorPage<>(items, hasNext, cursor != null, next, null);
+    }
+    // Shares the entries of findByPostId; the posts not cached are loaded with a single query
+    public Map<Integer, List<Comment>> findByPostIds(Collection<Integer> postIds) {
+        return byPostIds.get(postIds, missing -> {
+            Map<Integer, List<Comment>> loaded = new HashMap<>();
+            repository.findByPostIdIn(missing).forEach(comment -> loaded.computeIfAbsent(comment.getPostId(), postId -> new ArrayList<>()).add(comment));
+            return loaded;
+        });
+    }
+    // Each post's count is cached on its own; the ones not cached are summed in a single query
+    public Map<Integer, Long> countsFor(Collection<Integer> postIds) {
+        return countsByPostIds.get(postIds, missing -> {
+            Map<Integer, Long> loaded = new HashMap<>();
+            repository.sumCommentCounts(missing).forEach(row -> loaded.put(row.getPostId(), row.getCount()));
+            return loaded;
+        });
+    }
+    public long countFor(int postId) {
+        return countsFor(List.of(postId)).get(postId);
+    }
+    @Transactional
     @Caching(evict = {@CacheEvict(cacheNames = "Comment.findByPostId", key = "#DTO.postId()")})
     public Comment save(CreateCommentDTO DTO) {
         userRepository.findById(DTO.userId()).orElseThrow(() -> new EntityNotFoundException("User not found: " + DTO.userId()));
         postRepository.findById(DTO.postId()).orElseThrow(() -> new EntityNotFoundException("Post not found: " + DTO.postId()));
-        return repository.save(DTO.toEntity());
+        Comment saved = repository.save(DTO.toEntity());
+        repository.addToCommentCount(saved.getPostId(), ThreadLocalRandom.current().nextInt(COUNT_STRIPES), 1);
+        TransactionCallbacks.afterCommit(() -> {
+            counts.evict(saved.getPostId());
+            pages.changed(saved.getPostId(), saved);
+        });
+        return saved;
     }
     @Caching(evict = {@CacheEvict(cacheNames = "Comment.findByPostId", key = "#DTO.postId()")})
     public Comment update(UpdateCommentDTO DTO) {
@@ -46,11 +110,32 @@ public class CommentService {
         Post post = postRepository.findById(DTO.postId()).orElseThrow(() -> new EntityNotFoundException("Post not found: " + DTO.postId()));
         if (!Objects.equals(comment.getUserId(), user.getId())) throw new EntityNotFoundException("User does not own this comment: " + DTO.id());
         if (!Objects.equals(comment.getPostId(), post.getId())) throw new EntityNotFoundException("Comment does not belong to this post: " + DTO.id());
-        return repository.save(DTO.toEntity());
+        Comment updated = repository.save(DTO.toEntity());
+        // The update can't move the comment: created_at isn't updatable
+        pages.changed(comment.getPostId(), comment);
+        return updated;
     }
+    @Transactional
     @Caching(evict = {@CacheEvict(cacheNames = "Comment.findByPostId", allEntries = true)})
     public void delete(int ID) {
-        repository.findById(ID).orElseThrow(() -> new EntityNotFoundException("Comment not found: " + ID));
+        Comment comment = repository.findById(ID).orElseThrow(() -> new EntityNotFoundException("Comment not found: " + ID));
         repository.deleteById(ID);
+        repository.addToCommentCount(comment.getPostId(), ThreadLocalRandom.current().nextInt(COUNT_STRIPES), -1);
+        TransactionCallbacks.afterCommit(() -> {
+            counts.evict(comment.getPostId());
+            pages.changed(comment.getPostId(), comment);
+        });
+    }
+
+    // Also fills in the counters for comments written before they existed
+    @Transactional
+    @Scheduled(fixedDelayString = "${blog.comments.count-repair-interval:10m}", initialDelayString = "${blog.comments.count-repair-initial-delay:30s}")
+    public void repairCounts() {
+        if (!repository.tryLockCommentCounts()) return;
+        List<Integer> postIds = repository.repairCommentCounts();
+        if (postIds.isEmpty()) return;
+        repaired.increment(postIds.size());
+        logger.info("Repaired comment counts of {} posts", postIds.size());
+        TransactionCallbacks.afterCommit(() -> postIds.forEach(counts::evict));
     }
 }
@@ -1,27 +1,56 @@
 package com.blog.Service;
 
+import com.blog.Cache.CacheDecorator;
+import com.blog.Cache.KeysetPagedCache;
+import com.blog.Cache.PagedCache;
+import com.blog.Cache.VersionedCache;
+import com.blog.Config.CacheProperties;
 import com.blog.Model.User;
 import com.blog.Repository.CommentRepository;
 import com.blog.Repository.PostRepository;
 import com.blog.DataTransporter.Post.CreatePostDTO;
+import com.blog.DataTransporter.Post.PostSearchResult;
+import com.blog.DataTransporter.Post.PostSummary;
 import com.blog.DataTransporter.Post.UpdatePostDTO;
 import com.blog.Model.Post;
 
 import com.blog.Repository.UserRepository;
+import com.blog.Search.PostIndex;
+import com.blog.Search.Tokenizer;
+import com.blog.Utility.CursorPage;
+import com.blog.Utility.PostCursor;
+import com.blog.Utility.SearchCursor;
+import com.blog.Utility.TagCursor;
+import com.blog.Utility.TransactionCallbacks;
 import jakarta.persistence.EntityNotFoundException;
 
 import jakarta.validation.constraints.NotNull;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.lang.Nullable;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.util.HtmlUtils;
 import org.springframework.stereotype.Service;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
-import org.springframework.cache.annotation.Caching;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class PostService {
@@ -29,48 +58,219 @@ public class PostService {
     private final UserRepository userRepository;
     private final CommentRepository commentRepository;
     private final TagService tagService;
+    private final PagedCache pages;
+    private final PagedCache slices;
+    private final PagedCache summaries;
+    private final PagedCache summarySlices;
+    private final KeysetPagedCache commentPages;
+    private final Cache posts;
+    private final VersionedCache postVersions;
+    private final Cache comments;
+    private final Cache commentCounts;
+    private final Cache searches;
+    private final boolean writeThrough;
+    @Nullable
+    private final PostIndex index;
 
-    public PostService(PostRepository repository, UserRepository userRepository, CommentRepository commentRepository, TagService tagService) {
+    public PostService(PostRepository repository, UserRepository userRepository, CommentRepository commentRepository, TagService tagService, CacheManager cacheManager, CacheProperties cacheProperties, ObjectProvider<PostIndex> postIndex) {
         this.repository = repository;
         this.userRepository = userRepository;
         this.commentRepository = commentRepository;
         this.tagService = tagService;
+        this.pages = PagedCache.from(cacheManager, "Post.getAll");
+        this.slices = PagedCache.from(cacheManager, "Post.getSlice");
+        this.summaries = PagedCache.from(cacheManager, "Post.getSummaries");
+        this.summarySlices = PagedCache.from(cacheManager, "Post.getSummarySlice");
+        this.commentPages = KeysetPagedCache.from(cacheManager, "Comment.findPage");
+        this.posts = Objects.requireNonNull(cacheManager.getCache("Post.findById"));
+        this.postVersions = CacheDecorator.find(cacheManager, "Post.findById", VersionedCache.class);
+        this.comments = Objects.requireNonNull(cacheManager.getCache("Comment.findByPostId"));
+        this.commentCounts = Objects.requireNonNull(cacheManager.getCache("Post.commentCount"));
+        this.searches = Objects.requireNonNull(cacheManager.getCache("Post.search"));
+        this.writeThrough = cacheProperties.isWriteThrough();
+        this.index = postIndex.getIfAvailable();
     }
-    @Cacheable(cacheNames = "Post.findById", key = "#ID")
+    @Cacheable(cacheNames = "Post.findById", key = "#ID", sync = true)
     public Optional<Post> findById(int ID) {
         return repository.findById(ID);
     }
-    @Cacheable(cacheNames = "Post.getAll", key = "{#pageable.pageNumber, #pageable.pageSize, #pageable.sort}")
+    @Cacheable(cacheNames = "Post.getAll", key = "{#pageable.pageNumber, #pageable.pageSize, #pageable.sort}", sync = true)
     public Page<Post> findAll(Pageable pageable) {
+        // Unsorted OFFSET paging has no stable order in Postgres; pin it to id so cached pages can be invalidated by position
+        if (pageable.isPaged() && pageable.getSort().isUnsorted()) pageable = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), Sort.by("id"));
         return repository.findAll(pageable);
     }
-    @Cacheable(cacheNames = "Post.count")
+    // Same pages as findAll without the total, for clients that only need to know whether more follow
+    @Cacheable(cacheNames = "Post.getSlice", key = "{#pageable.pageNumber, #pageable.pageSize, #pageable.sort}", sync = true)
+    public Slice<Post> findSlice(Pageable pageable) {
+        if (pageable.isPaged() && pageable.getSort().isUnsorted()) pageable = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), Sort.by("id"));
+        return repository.findSliceBy(pageable);
+    }
+    // Listing pages without bodies; findById is the only read that loads one
+    @Cacheable(cacheNames = "Post.getSummaries", key = "{#pageable.pageNumber, #pageable.pageSize, #pageable.sort}", sync = true)
+    public Page<PostSummary> findSummaries(Pageable pageable) {
+        if (pageable.isPaged() && pageable.getSort().isUnsorted()) pageable = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), Sort.by("id"));
+        return repository.findSummaries(pageable);
+    }
+    // Summaries without the total, so no COUNT runs
+    @Cacheable(cacheNames = "Post.getSummarySlice", key = "{#pageable.pageNumber, #pageable.pageSize, #pageable.sort}", sync = true)
+    public Slice<PostSummary> findSummarySlice(Pageable pageable) {
+        if (pageable.isPaged() && pageable.getSort().isUnsorted()) pageable = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), Sort.by("id"));
+        return repository.findSummarySliceBy(pageable);
+    }
+    // Newest first. Unlike findAll the cost doesn't grow with depth, since each read seeks from the cursor
+    public CursorPage<Post> findByCursor(@Nullable PostCursor cursor, int size) {
+        if (size < 1) throw new IllegalArgumentException("Page size must be at least 1");
+        if (cursor == null || cursor.forward()) {
+            List<Post> rows = cursor == null ? repository.findNewest(size + 1) : repository.findOlderThan(cursor.createdAt(), cursor.id(), size + 1);
+            boolean hasNext = rows.size() > size;
+            return cursorPage(hasNext ? rows.subList(0, size) : rows, hasNext, cursor != null);
+        }
+        List<Post> rows = repository.findNewerThan(cursor.createdAt(), cursor.id(), size + 1);
+        boolean hasPrevious = rows.size() > size;
+        List<Post> items = new ArrayList<>(hasPrevious ? rows.subList(0, size) : rows);
+        Collections.reverse(items);
+        return cursorPage(items, true, hasPrevious);
+    }
+    // Ranked by relevance, title matches first. Pages are cached per normalized query, so "Spring  boot"
+    // and "spring boot" share an entry; any post write clears them all, since it may move any result.
+    public CursorPage<PostSearchResult> search(String query, @Nullable SearchCursor cursor, int size) {
+        if (size < 1) throw new IllegalArgumentException("Page size must be at least 1");
+        String normalized = query == null ? "" : query.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+        if (normalized.isEmpty()) throw new IllegalArgumentException("Search query must not be blank");
+        if (index != null && index.isReady()) return searchIndex(normalized, cursor, size);
+        List<Object> key = List.of(normalized, cursor == null ? "" : cursor.encode(), size);
+        return searches.get(key, () -> {
+            List<PostRepository.SearchRow> rows = cursor == null
+                    ? repository.search(normalized, size + 1)
+                    : repository.searchAfter(normalized, cursor.rank(), cursor.id(), size + 1);
+            boolean hasNext = rows.size() > size;
+            List<PostSearchResult> items = (hasNext ? rows.subList(0, size) : rows).stream().map(PostService::toSearchResult).toList();
+            String next = hasNext ? new SearchCursor(items.getLast().rank(), items.getLast().id()).encode() : null;
+            return new CursorPage<>(items, hasNext, cursor != null, next, null);
+        });
+    }
+    // One Postgres round trip for the whole page, returned in the order the tag query produced
+    public CursorPage<Post> findByTags(Collection<String> tags, boolean matchAll, @Nullable TagCursor cursor, int size) {
+        CursorPage<Integer> ids = tagService.findPostIdsByTags(tags, matchAll, cursor, size);
+        Map<Integer, Post> byId = new HashMap<>();
+        for (Post post : repository.findAllById(ids.items())) byId.put(post.getId(), post);
+        List<Post> items = ids.items().stream().map(byId::get).filter(Objects::nonNull).toList();
+        return new CursorPage<>(items, ids.hasNext(), ids.hasPrevious(), ids.nextCursor(), ids.previousCursor());
+    }
+    @Cacheable(cacheNames = "Post.count", sync = true)
     public long count() {
         return repository.count();
     }
     @Transactional
-    @CacheEvict(cacheNames = {"Post.getAll", "Post.count"}, allEntries = true)
+    @CacheEvict(cacheNames = "Post.count", allEntries = true)
     public Post save(@NotNull CreatePostDTO DTO) {
         userRepository.findById(DTO.userId()).orElseThrow(() -> new EntityNotFoundException("User not found: " + DTO.userId()));
-        return repository.save(DTO.toEntity());
+        Post saved = repository.save(DTO.toEntity());
+        TransactionCallbacks.afterCommit(() -> {
+            pages.inserted(saved);
+            slices.inserted(saved);
+            summaries.inserted(PostSummary.of(saved));
+            summarySlices.inserted(PostSummary.of(saved));
+            writeThrough(saved);
+            searches.clear();
+            if (index != null) index.index(saved);
+        });
+        return saved;
     }
     @Transactional
-    @CacheEvict(cacheNames = {"Post.getAll", "Post.count"}, allEntries = true)
+    @CacheEvict(cacheNames = "Post.count", allEntries = true)
     public Post update(@NotNull UpdatePostDTO DTO) {
         Post post = repository.findById(DTO.postId()).orElseThrow(() -> new EntityNotFoundException("Post not found: " + DTO.postId()));
         User user = userRepository.findById(DTO.userId()).orElseThrow(() -> new EntityNotFoundException("User not found: " + DTO.userId()));
         if (!Objects.equals(post.getUserId(), user.getId())) throw new EntityNotFoundException("User does not own this post: " + DTO.postId());
-        return repository.save(DTO.toEntity());
+        Post before = new Post(post.getId(), post.getUserId(), post.getTitle(), post.getBody(), post.isDraft(), post.getCreatedAt());
+        post.setTitle(DTO.title());
+        post.setBody(DTO.body());
+        post.setDraft(DTO.draft());
+        Post updated = repository.save(post);
+        TransactionCallbacks.afterCommit(() -> {
+            pages.updated(before, updated);
+            slices.updated(before, updated);
+            summaries.updated(PostSummary.of(before), PostSummary.of(updated));
+            summarySlices.updated(PostSummary.of(before), PostSummary.of(updated));
+            writeThrough(updated);
+            searches.clear();
+            if (index != null) index.index(updated);
+        });
+        return updated;
     }
     @Transactional
-    @Caching(evict = {
-        @CacheEvict(cacheNames = "Post.findById", key = "#ID"),
-        @CacheEvict(cacheNames = {"Post.getAll", "Post.count"}, allEntries = true)
-    })
+    @CacheEvict(cacheNames = "Post.count", allEntries = true)
     public void delete(int ID) {
-        repository.findById(ID).orElseThrow(() -> new EntityNotFoundException("Post not found: " + ID));
-        tagService.deleteByPostId(ID);
-        commentRepository.deleteByPostId(ID);
-        repository.deleteById(ID);
+        Post post = repository.findById(ID).orElseThrow(() -> new EntityNotFoundException("Post not found: " + ID));
+        deleteCascading(List.of(post));
+    }
+    // Ids without a post are skipped; returns how many posts were deleted
+    @Transactional
+    @CacheEvict(cacheNames = "Post.count", allEntries = true)
+    public int deleteAll(Collection<Integer> ids) {
+        List<Post> found = repository.findAllById(Set.copyOf(ids));
+        if (!found.isEmpty()) deleteCascading(found);
+        return found.size();
+    }
+
+    // A fixed number of statements however many posts and comments are involved
+    private void deleteCascading(List<Post> deleted) {
+        List<Integer> ids = deleted.stream().map(Post::getId).toList();
+        commentRepository.deleteByPostIdIn(ids);
+        repository.deleteByIdIn(ids);
+        TransactionCallbacks.afterCommit(() -> {
+            for (Post post : deleted) {
+                pages.deleted(post);
+                slices.deleted(post);
+                summaries.deleted(PostSummary.of(post));
+                summarySlices.deleted(PostSummary.of(post));
+                postVersions.deleted(post.getId());
+                posts.evict(post.getId());
+                comments.evict(post.getId());
+                commentPages.evictGroup(post.getId());
+                commentCounts.evict(post.getId());
+                if (index != null) index.remove(post.getId());
+            }
+            searches.clear();
+            // Mongo can't join the transaction, so tags go once the posts are really gone. Any left behind
+            // by a failure here point at missing posts, which tag lookups already skip.
+            tagService.deleteByPostIds(ids);
+        });
+    }
+    private CursorPage<Post> cursorPage(List<Post> items, boolean hasNext, boolean hasPrevious) {
+        String next = hasNext && !items.isEmpty() ? PostCursor.after(items.getLast()).encode() : null;
+        String previous = hasPrevious && !items.isEmpty() ? PostCursor.before(items.getFirst()).encode() : null;
+        return new CursorPage<>(List.copyOf(items), hasNext, hasPrevious, next, previous);
+    }
+    // Sub-millisecond ranking makes a results cache pointless here; only the hits' posts are looked up, through Post.findById
+    private CursorPage<PostSearchResult> searchIndex(String query, @Nullable SearchCursor cursor, int size) {
+        List<PostIndex.Hit> hits = index.search(query, cursor, size + 1);
+        boolean hasNext = hits.size() > size;
+        List<PostIndex.Hit> page = hasNext ? hits.subList(0, size) : hits;
+        Set<String> terms = Set.copyOf(Tokenizer.tokens(query));
+        List<PostSearchResult> items = new ArrayList<>(page.size());
+        for (PostIndex.Hit hit : page) {
+            Post post = posts.get(hit.postId(), () -> repository.findById(hit.postId()).orElse(null));
+            if (post == null) continue;
+            items.add(new PostSearchResult(post.getId(), post.getUserId(), post.getTitle(), post.getCreatedAt(), hit.score(), Tokenizer.highlight(PostSummary.excerptOf(post.getBody()), terms)));
+        }
+        String next = hasNext ? new SearchCursor(page.getLast().score(), page.getLast().postId()).encode() : null;
+        return new CursorPage<>(items, hasNext, cursor != null, next, null);
+    }
+    private static PostSearchResult toSearchResult(PostRepository.SearchRow row) {
+        String snippet = HtmlUtils.htmlEscape(row.getSnippet() == null ? "" : row.getSnippet())
+                .replace("\u0002", "<mark>")
+                .replace("\u0003", "</mark>");
+        return new PostSearchResult(row.getId(), row.getUserId(), row.getTitle(), row.getCreatedAt(), row.getRank().floatValue(), snippet);
+    }
+    private void writeThrough(Post post) {
+        if (writeThrough) {
+            posts.put(post.getId(), post);
+            return;
+        }
+        postVersions.written(post.getId(), post.getVersion());
+        posts.evict(post.getId());
     }
-}
\ No newline at end of file
+}
@@ -1,17 +1,31 @@
 package com.blog.Service;
 
+import com.blog.Cache.BatchCacheReader;
+import com.blog.Cache.PagedCache;
 import com.blog.DataTransporter.Tags.PostTagsDTO;
 import com.blog.Model.PostTags;
 import com.blog.Repository.PostRepository;
 import com.blog.Repository.TagRepository;
+import com.blog.Repository.TagRepositoryCustom.TagChange;
+import com.blog.Search.PostIndex;
+import com.blog.Utility.CursorPage;
+import com.blog.Utility.TagCursor;
 
 import java.util.*;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.persistence.EntityNotFoundException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Caching;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 import org.springframework.cache.annotation.Cacheable;
 
@@ -19,65 +33,121 @@ import org.springframework.cache.annotation.Cacheable;
 public class TagService {
     TagRepository repository;
     PostRepository postRepository;
+    PagedCache pages;
+    PagedCache slices;
+    Cache byPostId;
+    BatchCacheReader<Integer, List<String>> byPostIds;
+    Cache counts;
+    PostIndex index;
+    TagStatisticsService statistics;
 
-    public TagService(TagRepository repository, PostRepository postRepository) {
+    public TagService(TagRepository repository, PostRepository postRepository, CacheManager cacheManager, ObjectProvider<PostIndex> postIndex, TagStatisticsService statistics, MeterRegistry meterRegistry) {
         this.repository = repository;
         this.postRepository = postRepository;
+        this.pages = PagedCache.from(cacheManager, "PostTags.findAll");
+        this.slices = PagedCache.from(cacheManager, "PostTags.findSlice");
+        this.byPostId = Objects.requireNonNull(cacheManager.getCache("PostTags.findByPostId"));
+        this.byPostIds = new BatchCacheReader<>(byPostId, List.of(), meterRegistry);
+        this.counts = Objects.requireNonNull(cacheManager.getCache("PostTags.count"));
+        this.index = postIndex.getIfAvailable();
+        this.statistics = statistics;
     }
-    @Cacheable(cacheNames = "PostTags.findAll", key = "{#pageable.pageNumber, #pageable.pageSize, #pageable.sort}")
+    @Cacheable(cacheNames = "PostTags.findAll", key = "{#pageable.pageNumber, #pageable.pageSize, #pageable.sort}", sync = true)
     public Page<PostTags> findAll(Pageable pageable) {
+        if (pageable.isPaged() && pageable.getSort().isUnsorted()) pageable = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), Sort.by("id"));
         return repository.findAll(pageable);
     }
-    @Cacheable(cacheNames = "PostTags.findByPostId", key = "#postId")
+    @Cacheable(cacheNames = "PostTags.findSlice", key = "{#pageable.pageNumber, #pageable.pageSize, #pageable.sort}", sync = true)
+    public Slice<PostTags> findSlice(Pageable pageable) {
+        if (pageable.isPaged() && pageable.getSort().isUnsorted()) pageable = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), Sort.by("id"));
+        return repository.findSliceBy(pageable);
+    }
+    // Newest post first; matchAll requires every tag, otherwise any of them will do
+    public CursorPage<Integer> findPostIdsByTags(Collection<String> tags, boolean matchAll, @Nullable TagCursor cursor, int size) {
+        if (tags.isEmpty()) throw new IllegalArgumentException("At least one tag is required");
+        if (size < 1) throw new IllegalArgumentException("Page size must be at least 1");
+        int before = cursor == null ? Integer.MAX_VALUE : cursor.postId();
+        PageRequest limit = PageRequest.of(0, size + 1);
+        List<PostTags> rows = matchAll ? repository.findTaggedWithAll(tags, before, limit) : repository.findTaggedWithAny(tags, before, limit);
+        boolean hasNext = rows.size() > size;
+        List<Integer> postIds = (hasNext ? rows.subList(0, size) : rows).stream().map(PostTags::getPostId).toList();
+        String next = hasNext ? new TagCursor(postIds.getLast()).encode() : null;
+        return new CursorPage<>(postIds, hasNext, cursor != null, next, null);
+    }
+    @Cacheable(cacheNames = "PostTags.findByPostId", key = "#postId", sync = true)
     public List<String> findByPostId(int postId) {
         return repository.findByPostId(postId).map(PostTags::getTags).orElse(Collections.emptyList());
     }
-    @Cacheable(cacheNames = "PostTags.count")
+    // Shares the entries of findByPostId; the posts not cached are loaded with a single $in query
+    public Map<Integer, List<String>> findByPostIds(Collection<Integer> postIds) {
+        return byPostIds.get(postIds, missing -> {
+            Map<Integer, List<String>> loaded = new HashMap<>();
+            repository.findByPostIdIn(missing).forEach(tags -> loaded.put(tags.getPostId(), tags.getTags()));
+            return loaded;
+        });
+    }
+    @Cacheable(cacheNames = "PostTags.count", sync = true)
     public long count() {
         return repository.count();
     }
     @Caching(evict = {
             @CacheEvict(cacheNames = "PostTags.findByPostId", key = "#DTO.postId"),
-            @CacheEvict(cacheNames = {"PostTags.findAll", "PostTags.count"}, allEntries = true)
+            @CacheEvict(cacheNames = "PostTags.count", allEntries = true)
     })
     public void setPostTags(PostTagsDTO DTO) {
-        postRepository.findById(DTO.postId()).orElseThrow(() -> new EntityNotFoundException("Post not found: " + DTO.postId()));
-        repository.findByPostId(DTO.postId()).ifPresent(existing -> repository.delete(existing));
-        repository.save(DTO.toEntity());
+        // Mongo can't see Postgres, so this is the one write that still needs a second round trip
+        if (!postRepository.existsById(DTO.postId())) throw new EntityNotFoundException("Post not found: " + DTO.postId());
+        applied(repository.replaceTags(DTO.postId(), DTO.tags()));
     }
     @Caching(evict = {
             @CacheEvict(cacheNames = "PostTags.findByPostId", key = "#DTO.postId"),
-            @CacheEvict(cacheNames = {"PostTags.findAll", "PostTags.count"}, allEntries = true)
+            @CacheEvict(cacheNames = "PostTags.count", allEntries = true)
     })
     public void addTagsToPost(PostTagsDTO DTO) {
-        postRepository.findById(DTO.postId()).orElseThrow(() -> new EntityNotFoundException("Post not found: " + DTO.postId()));
-        PostTags existing = repository.findByPostId(DTO.postId()).orElseThrow(() -> new EntityNotFoundException("Failed to Add Tags For Post:" + DTO.postId()));
-        Set<String> currentTags = new HashSet<>(existing.getTags());
-        currentTags.addAll(DTO.tags());
-        existing.setTags(new ArrayList<>(currentTags));
-        repository.save(existing);
+        TagChange change = repository.addTags(DTO.postId(), DTO.tags());
+        if (change.before() == null) throw new EntityNotFoundException("Failed to Add Tags For Post:" + DTO.postId());
+        applied(change);
     }
     @Caching(evict = {
             @CacheEvict(cacheNames = "PostTags.findByPostId", key = "#DTO.postId"),
-            @CacheEvict(cacheNames = {"PostTags.findAll", "PostTags.count"}, allEntries = true)
+            @CacheEvict(cacheNames = "PostTags.count", allEntries = true)
     })
     public void removeTagsFromPost(PostTagsDTO DTO) {
-        postRepository.findById(DTO.postId()).orElseThrow(() -> new EntityNotFoundException("Post not found: " + DTO.postId()));
-        PostTags existing = repository.findByPostId(DTO.postId()).orElseThrow(() -> new EntityNotFoundException("Failed to Remove Tags For Post:" + DTO.postId()));
-        Set<String> currentTags = new HashSet<>(existing.getTags());
-        DTO.tags().forEach(currentTags::remove);
-        if (currentTags.isEmpty()) repository.delete(existing);
-        else {
-            existing.setTags(new ArrayList<>(currentTags));
-            repository.save(existing);
-        }
+        TagChange change = repository.removeTags(DTO.postId(), DTO.tags());
+        if (change.before() == null) throw new EntityNotFoundException("Failed to Remove Tags For Post:" + DTO.postId());
+        applied(change);
     }
     @Caching(evict = {
             @CacheEvict(cacheNames = "PostTags.findByPostId", key = "#postId"),
-            @CacheEvict(cacheNames = {"PostTags.findAll", "PostTags.count"}, allEntries = true)
+            @CacheEvict(cacheNames = "PostTags.count", allEntries = true)
     })
+    // A post without tags is left as it is
     public void deleteByPostId(int postId) {
-        repository.findByPostId(postId).orElseThrow(() -> new EntityNotFoundException("Failed to Delete All Tags For Post:" + postId));
-        repository.deleteByPostId(postId);
+        applied(repository.removeAllTags(postId));
+    }
+    public void deleteByPostIds(Collection<Integer> postIds) {
+        List<PostTags> removed = repository.removeAllTags(postIds);
+        removed.forEach(tags -> applied(new TagChange(tags, null)));
+        postIds.forEach(byPostId::evict);
+        if (!removed.isEmpty()) counts.clear();
+    }
+
+    private void applied(TagChange change) {
+        PostTags before = change.before();
+        PostTags after = change.after();
+        if (before == null && after == null) return;
+        if (before == null) {
+            pages.inserted(after);
+            slices.inserted(after);
+        } else if (after == null) {
+            pages.deleted(before);
+            slices.deleted(before);
+        } else {
+            pages.updated(before, after);
+            slices.updated(before, after);
+        }
+        int postId = before != null ? before.getPostId() : after.getPostId();
+        if (index != null) index.tagsChanged(postId, change.tagsAfter());
+        statistics.changed(change.tagsBefore(), change.tagsAfter());
     }
 }
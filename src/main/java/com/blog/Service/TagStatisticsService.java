@@ -0,0 +1,159 @@
+package com.blog.Service;
+
+import com.blog.Cache.CacheInvalidationBus;
+import com.blog.DataTransporter.Tags.TagCountDTO;
+import com.blog.Repository.TagRepository;
+import com.blog.Search.TagTrie;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+// Posts per tag, kept in memory and adjusted on every tag write, so tag clouds and tag autocompletion never
+// touch Mongo. Writes from other instances, announced on the invalidation bus, trigger an early reconciliation
+// against a Mongo aggregation; ones that failed halfway are corrected by the periodic one. Loaded at startup;
+// if Mongo is unreachable then, the first query loads it instead.
+@Service
+public class TagStatisticsService implements ApplicationRunner {
+    private static final Logger logger = LoggerFactory.getLogger(TagStatisticsService.class);
+    private static final Comparator<TagCountDTO> MOST_USED_FIRST = Comparator.comparingLong(TagCountDTO::count).reversed().thenComparing(TagCountDTO::tag);
+
+    private final TagRepository repository;
+    private final ConcurrentSkipListMap<String, Long> counts = new ConcurrentSkipListMap<>();
+    private final ConcurrentSkipListSet<TagCountDTO> ranking = new ConcurrentSkipListSet<>(MOST_USED_FIRST);
+    private final TagTrie completions = new TagTrie();
+    private final Counter drift;
+    // Held for a whole reconciliation, so query threads waiting on the first load don't each run one
+    private final Object reconciling = new Object();
+    // Adjustments made while a reconciliation reads Mongo, applied on top of what it read; null otherwise
+    private Map<String, Long> pending;
+    private volatile boolean loaded;
+    // Set when a peer wrote tags, whose before and after this instance never sees
+    private volatile boolean peersChanged;
+
+    public TagStatisticsService(TagRepository repository, ObjectProvider<CacheInvalidationBus> invalidationBus, MeterRegistry meterRegistry) {
+        this.repository = repository;
+        invalidationBus.ifAvailable(bus -> bus.onPeerChange("PostTags.findByPostId", key -> peersChanged = true));
+        this.drift = Counter.builder("blog.tags.reconcile.drift").description("Tag counts corrected by reconciliation").register(meterRegistry);
+        Gauge.builder("blog.tags.distinct", counts, Map::size).description("Distinct tags in use").register(meterRegistry);
+        Gauge.builder("blog.tags.trie.nodes", completions, TagTrie::nodeCount).description("Nodes in the tag autocompletion trie").register(meterRegistry);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            reconcile();
+        } catch (RuntimeException e) {
+            logger.warn("Failed to load tag counts at startup: {}", e.getMessage());
+        }
+    }
+
+    public List<TagCountDTO> mostUsed(int limit) {
+        ensureLoaded();
+        return ranking.stream().limit(limit).toList();
+    }
+    public List<TagCountDTO> mostUsedWithPrefix(String prefix, int limit) {
+        ensureLoaded();
+        if (prefix.isEmpty()) return mostUsed(limit);
+        return counts.subMap(prefix, true, prefix + Character.MAX_VALUE, true).entrySet().stream()
+                .map(entry -> new TagCountDTO(entry.getKey(), entry.getValue()))
+                .sorted(MOST_USED_FIRST)
+                .limit(limit)
+                .toList();
+    }
+
+    // Case-insensitive, at most TagTrie.MAX_COMPLETIONS
+    public List<TagCountDTO> complete(String prefix, int limit) {
+        ensureLoaded();
+        return completions.complete(prefix, limit);
+    }
+
+    // Called with a post's tags before and after a write; either may be empty
+    public synchronized void changed(Collection<String> before, Collection<String> after) {
+        Set<String> removed = new HashSet<>(before);
+        removed.removeAll(after);
+        Set<String> added = new HashSet<>(after);
+        added.removeAll(before);
+        removed.forEach(tag -> adjust(tag, -1));
+        added.forEach(tag -> adjust(tag, 1));
+    }
+
+    @Scheduled(fixedDelayString = "${blog.tags.reconcile-interval:5m}", initialDelayString = "${blog.tags.reconcile-interval:5m}")
+    public void reconcile() {
+        synchronized (reconciling) {
+            synchronized (this) {
+                pending = new HashMap<>();
+            }
+            try {
+                List<TagCountDTO> actual = repository.countPostsPerTag();
+                synchronized (this) {
+                    replaceWith(actual);
+                }
+            } finally {
+                synchronized (this) {
+                    pending = null;
+                }
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${blog.tags.peer-reconcile-delay:5s}")
+    public void reconcileAfterPeerWrites() {
+        if (!peersChanged) return;
+        peersChanged = false;
+        reconcile();
+    }
+
+    private void ensureLoaded() {
+        if (loaded) return;
+        synchronized (reconciling) {
+            if (!loaded) reconcile();
+        }
+    }
+    // A write that reached Mongo before the aggregation read its tag, but was reported after the aggregation
+    // started, ends up counted twice; the next round corrects that, where discarding the round would not
+    private void replaceWith(List<TagCountDTO> actual) {
+        Map<String, Long> expected = new HashMap<>();
+        for (TagCountDTO count : actual) expected.put(count.tag(), count.count());
+        pending.forEach((tag, delta) -> expected.merge(tag, delta, Long::sum));
+        expected.values().removeIf(count -> count <= 0);
+        long corrected = 0;
+        for (Map.Entry<String, Long> entry : counts.entrySet()) {
+            if (!entry.getValue().equals(expected.get(entry.getKey()))) corrected++;
+        }
+        for (String tag : expected.keySet()) if (!counts.containsKey(tag)) corrected++;
+        counts.clear();
+        counts.putAll(expected);
+        ranking.clear();
+        expected.forEach((tag, count) -> ranking.add(new TagCountDTO(tag, count)));
+        completions.replaceAll(expected);
+        if (loaded && corrected > 0) {
+            drift.increment(corrected);
+            logger.info("Tag count reconciliation corrected {} tags", corrected);
+        }
+        loaded = true;
+    }
+    private void adjust(String tag, int delta) {
+        if (pending != null) pending.merge(tag, (long) delta, Long::sum);
+        Long previous = counts.get(tag);
+        long current = (previous == null ? 0 : previous) + delta;
+        if (previous != null) ranking.remove(new TagCountDTO(tag, previous));
+        if (current > 0) {
+            counts.put(tag, current);
+            ranking.add(new TagCountDTO(tag, current));
+        } else {
+            counts.remove(tag);
+        }
+        completions.put(tag, Math.max(current, 0));
+    }
+}
@@ -0,0 +1,35 @@
+package com.blog.Utility;
+
+import com.blog.Model.Comment;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Comparator;
+
+// The last comment of a page in the (created_at, id) thread order; the next page starts right after it
+public record CommentCursor(LocalDateTime createdAt, int id) implements Comparable<CommentCursor> {
+    private static final Comparator<CommentCursor> THREAD_ORDER = Comparator.comparing(CommentCursor::createdAt).thenComparingInt(CommentCursor::id);
+
+    public static CommentCursor of(Comment comment) {
+        return new CommentCursor(comment.getCreatedAt(), comment.getId());
+    }
+    public static CommentCursor decode(String token) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split("\\|");
+            if (parts.length != 3 || !parts[0].equals("c")) throw new IllegalArgumentException("Invalid cursor: " + token);
+            return new CommentCursor(LocalDateTime.parse(parts[1]), Integer.parseInt(parts[2]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + token, e);
+        }
+    }
+
+    public String encode() {
+        String raw = "c|" + createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    @Override
+    public int compareTo(CommentCursor other) {
+        return THREAD_ORDER.compare(this, other);
+    }
+}
@@ -0,0 +1,12 @@
+package com.blog.Utility;
+
+import org.springframework.lang.Nullable;
+
+import java.util.List;
+import java.util.function.Function;
+
+public record CursorPage<T>(List<T> items, boolean hasNext, boolean hasPrevious, @Nullable String nextCursor, @Nullable String previousCursor) {
+    public <R> CursorPage<R> map(Function<? super T, ? extends R> mapper) {
+        return new CursorPage<>(items.stream().<R>map(mapper).toList(), hasNext, hasPrevious, nextCursor, previousCursor);
+    }
+}
@@ -0,0 +1,35 @@
+package com.blog.Utility;
+
+import com.blog.Model.Post;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+// A position in the (created_at DESC, id DESC) feed order plus the direction to read from it. Clients get
+// it base64-encoded and are expected to pass it back untouched.
+public record PostCursor(boolean forward, LocalDateTime createdAt, int id) {
+    public static PostCursor after(Post post) {
+        return new PostCursor(true, post.getCreatedAt(), post.getId());
+    }
+    public static PostCursor before(Post post) {
+        return new PostCursor(false, post.getCreatedAt(), post.getId());
+    }
+    public static PostCursor decode(String token) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split("\\|");
+            if (parts.length != 3 || !(parts[0].equals("a") || parts[0].equals("b"))) throw new IllegalArgumentException("Invalid cursor: " + token);
+            return new PostCursor(parts[0].equals("a"), LocalDateTime.parse(parts[1]), Integer.parseInt(parts[2]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + token, e);
+        }
+    }
+
+    public PostCursor withDirection(boolean forward) {
+        return new PostCursor(forward, createdAt, id);
+    }
+    public String encode() {
+        String raw = (forward ? "a" : "b") + "|" + createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,23 @@
+package com.blog.Utility;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// A position in search results ordered by (rank DESC, id DESC). The rank round-trips exactly because it
+// is the float4 Postgres computed, widened to double on both sides of the comparison.
+public record SearchCursor(float rank, int id) {
+    public static SearchCursor decode(String token) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split("\\|");
+            if (parts.length != 2) throw new IllegalArgumentException("Invalid cursor: " + token);
+            return new SearchCursor(Float.parseFloat(parts[0]), Integer.parseInt(parts[1]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + token, e);
+        }
+    }
+
+    public String encode() {
+        String raw = rank + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,21 @@
+package com.blog.Utility;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// The last post id of a tag query page; results run by descending post id
+public record TagCursor(int postId) {
+    public static TagCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            if (!raw.startsWith("t|")) throw new IllegalArgumentException("Invalid cursor: " + token);
+            return new TagCursor(Integer.parseInt(raw.substring(2)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + token, e);
+        }
+    }
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(("t|" + postId).getBytes(StandardCharsets.UTF_8));
+    }
+}
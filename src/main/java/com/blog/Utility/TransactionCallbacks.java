@@ -0,0 +1,30 @@
+package com.blog.Utility;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+public final class TransactionCallbacks {
+    // Synchronizations registered while afterCommit callbacks are running are never invoked, so nested calls run inline
+    private static final ThreadLocal<Boolean> committing = new ThreadLocal<>();
+
+    private TransactionCallbacks() { }
+
+    public static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive() || committing.get() != null) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                boolean outermost = committing.get() == null;
+                committing.set(Boolean.TRUE);
+                try {
+                    action.run();
+                } finally {
+                    if (outermost) committing.remove();
+                }
+            }
+        });
+    }
+}
@@ -16,10 +16,17 @@ CREATE TABLE IF NOT EXISTS posts (
     title VARCHAR NOT NULL,
     body TEXT NOT NULL,
     is_draft BOOLEAN DEFAULT false,
-    created_at TIMESTAMP DEFAULT now()
+    created_at TIMESTAMP DEFAULT now(),
+    version BIGINT NOT NULL DEFAULT 0
 );
+ALTER TABLE posts ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
 CREATE INDEX ON posts(title);
 CREATE INDEX ON posts(user_id);
+CREATE INDEX IF NOT EXISTS posts_created_at_id_idx ON posts(created_at DESC, id DESC);
+ALTER TABLE posts ADD COLUMN IF NOT EXISTS search_vector tsvector GENERATED ALWAYS AS (
+    setweight(to_tsvector('english', coalesce(title, '')), 'A') || setweight(to_tsvector('english', coalesce(body, '')), 'B')
+) STORED;
+CREATE INDEX IF NOT EXISTS posts_search_vector_idx ON posts USING GIN (search_vector);
 
 CREATE TABLE IF NOT EXISTS comments (
     id INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
@@ -29,4 +36,14 @@ CREATE TABLE IF NOT EXISTS comments (
     created_at TIMESTAMP DEFAULT now()
 );
 CREATE INDEX ON comments(post_id);
+CREATE INDEX IF NOT EXISTS comments_post_id_created_at_id_idx ON comments(post_id, created_at, id);
+
+-- Comments per post, spread over a few rows per post so a burst of comments on one post doesn't queue on
+-- a single row lock; a post's count is the sum of its stripes
+CREATE TABLE IF NOT EXISTS post_comment_counts (
+    post_id INTEGER NOT NULL REFERENCES posts(id) ON DELETE CASCADE,
+    stripe SMALLINT NOT NULL,
+    count BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (post_id, stripe)
+);
 
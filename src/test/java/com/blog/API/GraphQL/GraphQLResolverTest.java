@@ -3,13 +3,19 @@ package com.blog.API.GraphQL;
 import com.blog.DataTransporter.Comment.CreateCommentDTO;
 import com.blog.DataTransporter.Comment.UpdateCommentDTO;
 import com.blog.DataTransporter.Post.CreatePostDTO;
+import com.blog.DataTransporter.Post.PostSearchResult;
+import com.blog.DataTransporter.Post.PostSummary;
 import com.blog.DataTransporter.Post.ResponsePostDTO;
 import com.blog.DataTransporter.Post.UpdatePostDTO;
 import com.blog.DataTransporter.Tags.PostTagsDTO;
+import com.blog.DataTransporter.Tags.TagCountDTO;
 import com.blog.DataTransporter.User.RegisterUserDTO;
 import com.blog.Model.Comment;
 import com.blog.Model.Post;
 import com.blog.Service.*;
+import com.blog.Utility.CommentCursor;
+import com.blog.Utility.CursorPage;
+import com.blog.Utility.SearchCursor;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -20,15 +26,20 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.graphql.test.tester.GraphQlTester;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 @GraphQlTest(GraphQLResolver.class)
@@ -50,6 +61,9 @@ class GraphQLResolverTest {
     @MockBean
     private TagService tagService;
 
+    @MockBean
+    private TagStatisticsService tagStatistics;
+
     private long testStartTime;
     private long testEndTime;
 
@@ -83,6 +97,23 @@ class GraphQLResolverTest {
         verify(postService, times(1)).findById(1);
     }
 
+    @Test
+    @DisplayName("Query: findPostByID - Should resolve the comment count from the counters")
+    void testFindPostByIDWithCommentCount() {
+        // Arrange
+        Post post = new Post(1, 1, "Test Post", "Test Body", false, LocalDateTime.now());
+        when(postService.findById(1)).thenReturn(Optional.of(post));
+        when(commentService.countsFor(List.of(1))).thenReturn(Map.of(1, 4L));
+
+        // Act & Assert
+        graphQlTester.document("{ findPostByID(id: 1) { id commentCount } }")
+                .execute()
+                .path("findPostByID.commentCount").entity(Integer.class).isEqualTo(4);
+
+        verify(commentService, times(1)).countsFor(List.of(1));
+        verify(commentService, never()).findByPostId(anyInt());
+    }
+
     @Test
     @DisplayName("Query: findPostByID - Should return null for non-existent post")
     void testFindPostByIDNotFound() {
@@ -132,6 +163,80 @@ class GraphQLResolverTest {
         verify(postService, times(1)).findAll(any());
     }
 
+    @Test
+    @DisplayName("Query: findAllPosts - Should load summaries when no body is selected")
+    void testFindAllPostsWithoutBody() {
+        // Arrange
+        PostSummary summary = new PostSummary(1, 1, "Post 1", false, LocalDateTime.now(), "Body 1");
+        Page<PostSummary> summaryPage = new PageImpl<>(List.of(summary), PageRequest.of(0, 10), 1);
+
+        when(postService.findSummaries(any())).thenReturn(summaryPage);
+
+        // Act & Assert
+        graphQlTester.document("{ findAllPosts(page: 0, size: 10) { id title excerpt } }")
+                .execute()
+                .path("findAllPosts[0].excerpt").entity(String.class).isEqualTo("Body 1");
+
+        verify(postService, times(1)).findSummaries(any());
+        verify(postService, never()).findAll(any());
+    }
+
+    @Test
+    @DisplayName("Query: findAllPosts - Should load a summary slice when slice is set and no body is selected")
+    void testFindAllPostsSliceWithoutBody() {
+        // Arrange
+        PostSummary summary = new PostSummary(1, 1, "Post 1", false, LocalDateTime.now(), "Body 1");
+        Slice<PostSummary> summarySlice = new SliceImpl<>(List.of(summary), PageRequest.of(0, 10), false);
+
+        when(postService.findSummarySlice(any())).thenReturn(summarySlice);
+
+        // Act & Assert
+        graphQlTester.document("{ findAllPosts(page: 0, size: 10, slice: true) { id title } }")
+                .execute()
+                .path("findAllPosts[0].title").entity(String.class).isEqualTo("Post 1");
+
+        verify(postService, times(1)).findSummarySlice(any());
+        verify(postService, never()).findSummaries(any());
+        verify(postService, never()).findSlice(any());
+    }
+
+    @Test
+    @DisplayName("Query: findAllPosts - Should load full posts when the body is selected")
+    void testFindAllPostsWithBody() {
+        // Arrange
+        Post post = new Post(1, 1, "Post 1", "Body 1", false, LocalDateTime.now());
+        Page<Post> postPage = new PageImpl<>(List.of(post), PageRequest.of(0, 10), 1);
+
+        when(postService.findAll(any())).thenReturn(postPage);
+
+        // Act & Assert
+        graphQlTester.document("{ findAllPosts(page: 0, size: 10) { id body } }")
+                .execute()
+                .path("findAllPosts[0].body").entity(String.class).isEqualTo("Body 1");
+
+        verify(postService, times(1)).findAll(any());
+        verify(postService, never()).findSummaries(any());
+    }
+
+    @Test
+    @DisplayName("Query: searchPosts - Should return ranked results with a next cursor")
+    void testSearchPosts() {
+        // Arrange
+        PostSearchResult result = new PostSearchResult(1, 1, "Spring Boot", LocalDateTime.now(), 0.6f, "Getting started with <mark>Spring</mark>");
+        String next = new SearchCursor(0.6f, 1).encode();
+        CursorPage<PostSearchResult> results = new CursorPage<>(List.of(result), true, false, next, null);
+
+        when(postService.search(eq("spring"), isNull(), eq(1))).thenReturn(results);
+
+        // Act & Assert
+        graphQlTester.document("{ searchPosts(query: \"spring\", first: 1) { items { id title snippet } hasNext nextCursor } }")
+                .execute()
+                .path("searchPosts.items[0].title").entity(String.class).isEqualTo("Spring Boot")
+                .path("searchPosts.nextCursor").entity(String.class).isEqualTo(next);
+
+        verify(postService, times(1)).search(eq("spring"), isNull(), eq(1));
+    }
+
     @Test
     @DisplayName("Query: findAllTags - Should find all tags with pagination")
     void testFindAllTags() {
@@ -146,6 +251,38 @@ class GraphQLResolverTest {
         verify(tagService, times(1)).findAll(any());
     }
 
+    @Test
+    @DisplayName("Query: tagCloud - Should return the most used tags with their counts")
+    void testTagCloud() {
+        // Arrange
+        when(tagStatistics.mostUsed(2)).thenReturn(List.of(new TagCountDTO("java", 7), new TagCountDTO("spring", 4)));
+
+        // Act & Assert
+        graphQlTester.document("{ tagCloud(limit: 2) { tag count } }")
+                .execute()
+                .path("tagCloud[0].tag").entity(String.class).isEqualTo("java")
+                .path("tagCloud[0].count").entity(Integer.class).isEqualTo(7)
+                .path("tagCloud[1].tag").entity(String.class).isEqualTo("spring");
+
+        verify(tagStatistics, times(1)).mostUsed(2);
+        verify(tagService, never()).findAll(any());
+    }
+
+    @Test
+    @DisplayName("Query: suggestTags - Should complete a tag prefix")
+    void testSuggestTags() {
+        // Arrange
+        when(tagStatistics.complete("ja", 10)).thenReturn(List.of(new TagCountDTO("java", 7), new TagCountDTO("javascript", 5)));
+
+        // Act & Assert
+        graphQlTester.document("{ suggestTags(prefix: \"ja\") { tag count } }")
+                .execute()
+                .path("suggestTags[1].tag").entity(String.class).isEqualTo("javascript")
+                .path("suggestTags[1].count").entity(Integer.class).isEqualTo(5);
+
+        verify(tagStatistics, times(1)).complete("ja", 10);
+    }
+
     @Test
     @DisplayName("Query: findTagsForPost - Should find tags for post")
     void testFindTagsForPost() {
@@ -331,6 +468,20 @@ class GraphQLResolverTest {
         verify(postService, times(1)).delete(1);
     }
 
+    @Test
+    @DisplayName("Mutation: deletePosts - Should delete posts in bulk")
+    void testDeletePostsMutation() {
+        // Arrange
+        when(postService.deleteAll(List.of(1, 2))).thenReturn(2);
+
+        // Act & Assert
+        graphQlTester.document("mutation { deletePosts(ids: [1, 2]) }")
+                .execute()
+                .path("deletePosts").entity(Integer.class).isEqualTo(2);
+
+        verify(postService, times(1)).deleteAll(List.of(1, 2));
+    }
+
     @Test
     @DisplayName("Mutation: addComment - Should add comment successfully")
     void testAddCommentMutation() {
@@ -430,14 +581,81 @@ class GraphQLResolverTest {
         // Arrange
         Post post = new Post(1, 1, "Test Post", "Test Body", false, LocalDateTime.now());
         List<String> tags = Arrays.asList("Java", "Spring");
-        when(tagService.findByPostId(1)).thenReturn(tags);
+        when(postService.findById(1)).thenReturn(Optional.of(post));
+        when(tagService.findByPostIds(List.of(1))).thenReturn(Map.of(1, tags));
 
         // Act & Assert
         graphQlTester.document("{ findPostByID(id: 1) { tags } }")
                 .execute()
                 .path("findPostByID.tags[0]").entity(String.class).isEqualTo("Java");
 
-        verify(tagService, times(1)).findByPostId(1);
+        verify(tagService, times(1)).findByPostIds(List.of(1));
+    }
+
+    @Test
+    @DisplayName("BatchMapping: Post.tags and Post.comments - Should load a whole listing with one call each")
+    void testBatchesNestedFieldsOfListing() {
+        // Arrange
+        Post post1 = new Post(1, 1, "Post 1", "Body 1", false, LocalDateTime.now());
+        Post post2 = new Post(2, 1, "Post 2", "Body 2", false, LocalDateTime.now());
+        Page<Post> postPage = new PageImpl<>(Arrays.asList(post1, post2), PageRequest.of(0, 2), 2);
+        when(postService.findAll(any())).thenReturn(postPage);
+        when(tagService.findByPostIds(List.of(1, 2))).thenReturn(Map.of(1, List.of("Java")));
+        when(commentService.findByPostIds(any())).thenReturn(Map.of(2, List.of(new Comment(1, 1, 2, "Nice", LocalDateTime.now()))));
+
+        // Act & Assert
+        graphQlTester.document("{ findAllPosts(page: 0, size: 2) { body tags comments { body } } }")
+                .execute()
+                .path("findAllPosts[0].tags[0]").entity(String.class).isEqualTo("Java")
+                .path("findAllPosts[1].tags").entityList(String.class).hasSize(0)
+                .path("findAllPosts[0].comments").entityList(Comment.class).hasSize(0)
+                .path("findAllPosts[1].comments[0].body").entity(String.class).isEqualTo("Nice");
+
+        verify(tagService, times(1)).findByPostIds(List.of(1, 2));
+        verify(commentService, times(1)).findByPostIds(any());
+        verify(tagService, never()).findByPostId(anyInt());
+        verify(commentService, never()).findByPostId(anyInt());
+    }
+
+    @Test
+    @DisplayName("Instrumentation: query cost - Should refuse a query over the budget before fetching anything")
+    void testRejectsQueryOverCostBudget() {
+        // Act & Assert
+        graphQlTester.document("{ findAllPosts(page: 0, size: 1000) { body comments { body } } }")
+                .execute()
+                .errors()
+                .expect(error -> error.getMessage().contains("exceeds the budget of 10000"))
+                .verify();
+
+        verify(postService, never()).findAll(any());
+        verify(commentService, never()).findByPostIds(any());
+    }
+
+    @Test
+    @DisplayName("Instrumentation: query cost - Should price a connection's edges by its first argument")
+    void testRejectsLargeConnectionOverCostBudget() {
+        // Act & Assert
+        graphQlTester.document("{ findPostsConnection(first: 100000) { edges { node { comments { body } tags } } } }")
+                .execute()
+                .errors()
+                .expect(error -> error.getMessage().contains("exceeds the budget of 10000"))
+                .verify();
+
+        verify(postService, never()).findByCursor(any(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Persisted queries: Should refuse a document whose hash does not match the one sent")
+    void testRejectsMismatchedPersistedQueryHash() {
+        // Act & Assert
+        graphQlTester.document("{ findPostByID(id: 1) { id } }")
+                .extension("persistedQuery", Map.of("version", 1, "sha256Hash", "0".repeat(64)))
+                .execute()
+                .errors()
+                .expect(error -> error.getMessage() != null && error.getMessage().contains("PersistedQueryIdInvalid"))
+                .verify();
+
+        verify(postService, never()).findById(anyInt());
     }
 
     @Test
@@ -449,14 +667,33 @@ class GraphQLResolverTest {
             new Comment(1, 1, 1, "Great post!", LocalDateTime.now())
         );
         when(postService.findById(1)).thenReturn(Optional.of(post));
-        when(commentService.findByPostId(1)).thenReturn(comments);
+        when(commentService.findByPostIds(any())).thenReturn(Map.of(1, comments));
 
         // Act & Assert
         graphQlTester.document("{ findPostByID(id: 1) { comments { body } } }")
                 .execute()
                 .path("findPostByID.comments[0].body").entity(String.class).isEqualTo("Great post!");
 
-        verify(commentService, times(1)).findByPostId(1);
+        verify(commentService, times(1)).findByPostIds(any());
+    }
+
+    @Test
+    @DisplayName("SchemaMapping: Post.comments(first) - Should get one page of comments for post")
+    void testGetCommentPageSchemaMapping() {
+        // Arrange
+        Post post = new Post(1, 1, "Test Post", "Test Body", false, LocalDateTime.now());
+        Comment comment = new Comment(1, 1, 1, "First!", LocalDateTime.of(2024, 1, 1, 12, 0));
+        when(postService.findById(1)).thenReturn(Optional.of(post));
+        when(commentService.findPage(1, null, 1)).thenReturn(new CursorPage<>(List.of(comment), true, false, CommentCursor.of(comment).encode(), null));
+
+        // Act & Assert
+        graphQlTester.document("{ findPostByID(id: 1) { comments(first: 1) { body } } }")
+                .execute()
+                .path("findPostByID.comments.length()").entity(Integer.class).isEqualTo(1)
+                .path("findPostByID.comments[0].body").entity(String.class).isEqualTo("First!");
+
+        verify(commentService, times(1)).findPage(1, null, 1);
+        verify(commentService, never()).findByPostId(anyInt());
     }
 
     @Test
@@ -465,8 +702,8 @@ class GraphQLResolverTest {
         // Arrange
         Post post = new Post(1, 1, "Test Post", "Test Body", false, LocalDateTime.now());
         when(postService.findById(1)).thenReturn(Optional.of(post));
-        when(tagService.findByPostId(1)).thenReturn(Arrays.asList("Java"));
-        when(commentService.findByPostId(1)).thenReturn(Arrays.asList(new Comment(1, 1, 1, "Comment", LocalDateTime.now())));
+        when(tagService.findByPostIds(List.of(1))).thenReturn(Map.of(1, Arrays.asList("Java")));
+        when(commentService.findByPostIds(any())).thenReturn(Map.of(1, Arrays.asList(new Comment(1, 1, 1, "Comment", LocalDateTime.now()))));
 
         // Act & Assert
         graphQlTester.document("{ findPostByID(id: 1) { id userId username title body draft createdAt tags comments { body } } }")
@@ -0,0 +1,48 @@
+package com.blog.API.GraphQL;
+
+import graphql.ErrorType;
+import graphql.ExecutionInput;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Persisted Queries Tests")
+class PersistedQueriesTest {
+    private PersistedQueries persistedQueries;
+    private Function<ExecutionInput, PreparsedDocumentEntry> parseAndValidate;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        persistedQueries = new PersistedQueries(500, "", false, new DefaultResourceLoader(), mock(ObjectProvider.class));
+        parseAndValidate = mock(Function.class);
+    }
+
+    @Test
+    @DisplayName("Should answer a request with neither a query nor a hash with a syntax error")
+    void testRejectsMissingQuery() throws Exception {
+        // Arrange
+        for (String query : new String[] {null, "", "   "}) {
+            ExecutionInput input = mock(ExecutionInput.class);
+            when(input.getQuery()).thenReturn(query);
+            when(input.getExtensions()).thenReturn(Map.of());
+
+            // Act
+            PreparsedDocumentEntry entry = persistedQueries.getDocumentAsync(input, parseAndValidate).get();
+
+            // Assert
+            assertThat(entry.hasErrors()).isTrue();
+            assertThat(entry.getErrors().getFirst().getErrorType()).isEqualTo(ErrorType.InvalidSyntax);
+        }
+        verifyNoInteractions(parseAndValidate);
+    }
+}
@@ -5,6 +5,8 @@ import com.blog.DataTransporter.Comment.ResponseCommentDTO;
 import com.blog.DataTransporter.Comment.UpdateCommentDTO;
 import com.blog.Model.Comment;
 import com.blog.Service.CommentService;
+import com.blog.Utility.CommentCursor;
+import com.blog.Utility.CursorPage;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.AfterEach;
@@ -23,6 +25,8 @@ import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -98,6 +102,36 @@ class RestCommentControllerTest {
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+    @DisplayName("GET /api/comments/post/{postId}?cursor= - Should retrieve the first page of comments")
+    void testGetCommentPageForPost() throws Exception {
+        // Arrange
+        Comment first = new Comment(1, 1, 1, "Great post!", LocalDateTime.of(2024, 1, 1, 12, 0));
+        Comment second = new Comment(2, 2, 1, "Very informative", LocalDateTime.of(2024, 1, 1, 12, 5));
+        String next = CommentCursor.of(second).encode();
+        when(commentService.findPage(eq(1), isNull(), eq(2))).thenReturn(new CursorPage<>(List.of(first, second), true, false, next, null));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/comments/post/1?cursor=&size=2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.items.length()").value(2))
+                .andExpect(jsonPath("$.data.hasNext").value(true))
+                .andExpect(jsonPath("$.data.nextCursor").value(next));
+
+        verify(commentService, times(1)).findPage(eq(1), isNull(), eq(2));
+        verify(commentService, never()).findByPostId(anyInt());
+    }
+
+    @Test
+    @DisplayName("GET /api/comments/post/{postId}?cursor= - Should return 400 for a malformed cursor")
+    void testGetCommentPageForPostMalformedCursor() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/api/comments/post/1?cursor=not-a-cursor"))
+                .andExpect(status().isBadRequest());
+
+        verify(commentService, never()).findPage(anyInt(), any(), anyInt());
+    }
+
     @Test
     @DisplayName("POST /api/comments - Should create comment successfully")
     void testCreateComment() throws Exception {
@@ -1,10 +1,15 @@
 package com.blog.API.Rest;
 
 import com.blog.DataTransporter.Post.CreatePostDTO;
+import com.blog.DataTransporter.Post.PostSearchResult;
+import com.blog.DataTransporter.Post.PostSummary;
 import com.blog.DataTransporter.Post.ResponsePostDTO;
 import com.blog.DataTransporter.Post.UpdatePostDTO;
 import com.blog.Model.Post;
+import com.blog.Service.CommentService;
 import com.blog.Service.PostService;
+import com.blog.Utility.CursorPage;
+import com.blog.Utility.PostCursor;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.AfterEach;
@@ -17,15 +22,22 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -40,6 +52,9 @@ class RestPostControllerTest {
     @MockBean
     private PostService postService;
 
+    @MockBean
+    private CommentService commentService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -88,6 +103,39 @@ class RestPostControllerTest {
         verify(postService, times(1)).findById(999);
     }
 
+    @Test
+    @DisplayName("GET /api/posts/{id} - Should return 304 when the post is unchanged")
+    void testFindPostByIdNotModified() throws Exception {
+        // Arrange
+        Post post = new Post(1, 1, "Test Post", "Test Body", false, LocalDateTime.of(2024, 1, 1, 12, 0), 7L);
+        when(postService.findById(1)).thenReturn(Optional.of(post));
+        when(commentService.countFor(1)).thenReturn(3L);
+        String etag = mockMvc.perform(get("/api/posts/1"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        // Act & Assert
+        mockMvc.perform(get("/api/posts/1").header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", etag));
+    }
+
+    @Test
+    @DisplayName("GET /api/posts/{id} - Should return the post again once its version changes")
+    void testFindPostByIdModified() throws Exception {
+        // Arrange
+        Post post = new Post(1, 1, "Test Post", "Test Body", false, LocalDateTime.of(2024, 1, 1, 12, 0), 7L);
+        when(postService.findById(1)).thenReturn(Optional.of(post));
+        String etag = mockMvc.perform(get("/api/posts/1"))
+                .andReturn().getResponse().getHeader("ETag");
+        post.setVersion(8L);
+
+        // Act & Assert
+        mockMvc.perform(get("/api/posts/1").header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.postId").value(1));
+    }
+
     @Test
     @DisplayName("GET /api/posts - Should retrieve all posts with pagination")
     void testFindAllPosts() throws Exception {
@@ -106,6 +154,27 @@ class RestPostControllerTest {
         verify(postService, times(1)).findAll(any());
     }
 
+    @Test
+    @DisplayName("GET /api/posts - Should include comment counts looked up once for the whole page")
+    void testFindAllPostsWithCommentCounts() throws Exception {
+        // Arrange
+        Post post1 = new Post(1, 1, "Post 1", "Body 1", false, LocalDateTime.now());
+        Post post2 = new Post(2, 1, "Post 2", "Body 2", false, LocalDateTime.now());
+        Page<Post> postPage = new PageImpl<>(Arrays.asList(post1, post2), PageRequest.of(0, 10), 2);
+
+        when(postService.findAll(any())).thenReturn(postPage);
+        when(commentService.countsFor(List.of(1, 2))).thenReturn(Map.of(1, 3L));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/posts?page=0&size=10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.content[0].commentCount").value(3))
+                .andExpect(jsonPath("$.data.content[1].commentCount").value(0));
+
+        verify(commentService, times(1)).countsFor(List.of(1, 2));
+        verify(commentService, never()).countFor(anyInt());
+    }
+
     @Test
     @DisplayName("GET /api/posts - Should retrieve all posts with sorting")
     void testFindAllPostsWithSorting() throws Exception {
@@ -124,6 +193,157 @@ class RestPostControllerTest {
         verify(postService, times(1)).findAll(any());
     }
 
+    @Test
+    @DisplayName("GET /api/posts/search - Should return ranked results with highlighted snippets")
+    void testSearchPosts() throws Exception {
+        // Arrange
+        PostSearchResult result = new PostSearchResult(1, 1, "Spring Boot", LocalDateTime.now(), 0.6f, "Getting started with <mark>Spring</mark>");
+        CursorPage<PostSearchResult> results = new CursorPage<>(List.of(result), false, false, null, null);
+
+        when(postService.search(eq("spring"), isNull(), eq(20))).thenReturn(results);
+
+        // Act & Assert
+        mockMvc.perform(get("/api/posts/search?q=spring"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.items[0].title").value("Spring Boot"))
+                .andExpect(jsonPath("$.data.items[0].snippet").value("Getting started with <mark>Spring</mark>"))
+                .andExpect(jsonPath("$.data.hasNext").value(false));
+
+        verify(postService, times(1)).search(eq("spring"), isNull(), eq(20));
+    }
+
+    @Test
+    @DisplayName("GET /api/posts/search - Should return 400 for a malformed cursor")
+    void testSearchPostsMalformedCursor() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/api/posts/search?q=spring&cursor=not-a-cursor"))
+                .andExpect(status().isBadRequest());
+
+        verify(postService, never()).search(any(), any(), anyInt());
+    }
+
+    @Test
+    @DisplayName("GET /api/posts/tagged - Should retrieve posts carrying all the given tags")
+    void testFindPostsByTags() throws Exception {
+        // Arrange
+        Post post1 = new Post(7, 1, "Post 7", "Body 7", false, LocalDateTime.now());
+        Post post2 = new Post(3, 1, "Post 3", "Body 3", false, LocalDateTime.now());
+        CursorPage<Post> tagged = new CursorPage<>(List.of(post1, post2), false, false, null, null);
+
+        when(postService.findByTags(eq(List.of("java", "spring")), eq(true), isNull(), eq(20))).thenReturn(tagged);
+
+        // Act & Assert
+        mockMvc.perform(get("/api/posts/tagged?tag=java&tag=spring&match=all"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.items[0].postId").value(7))
+                .andExpect(jsonPath("$.data.items[1].postId").value(3));
+
+        verify(postService, times(1)).findByTags(eq(List.of("java", "spring")), eq(true), isNull(), eq(20));
+    }
+
+    @Test
+    @DisplayName("GET /api/posts/tagged - Should return 400 for an unknown match mode")
+    void testFindPostsByTagsInvalidMatch() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/api/posts/tagged?tag=java&match=some"))
+                .andExpect(status().isBadRequest());
+
+        verify(postService, never()).findByTags(any(), anyBoolean(), any(), anyInt());
+    }
+
+    @Test
+    @DisplayName("GET /api/posts?view=summary - Should retrieve post summaries without bodies")
+    void testFindPostSummaries() throws Exception {
+        // Arrange
+        PostSummary summary = new PostSummary(1, 1, "Post 1", false, LocalDateTime.now(), "Body 1");
+        Page<PostSummary> summaryPage = new PageImpl<>(Arrays.asList(summary), PageRequest.of(0, 10), 1);
+
+        when(postService.findSummaries(any())).thenReturn(summaryPage);
+
+        // Act & Assert
+        mockMvc.perform(get("/api/posts?page=0&size=10&view=summary"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.content[0].excerpt").value("Body 1"))
+                .andExpect(jsonPath("$.data.content[0].body").doesNotExist());
+
+        verify(postService, times(1)).findSummaries(any());
+        verify(postService, never()).findAll(any());
+    }
+
+    @Test
+    @DisplayName("GET /api/posts?view=summary&slice=true - Should retrieve post summaries without counting them")
+    void testFindPostSummarySlice() throws Exception {
+        // Arrange
+        PostSummary summary = new PostSummary(1, 1, "Post 1", false, LocalDateTime.now(), "Body 1");
+        Slice<PostSummary> summarySlice = new SliceImpl<>(Arrays.asList(summary), PageRequest.of(0, 10), true);
+
+        when(postService.findSummarySlice(any())).thenReturn(summarySlice);
+
+        // Act & Assert
+        mockMvc.perform(get("/api/posts?page=0&size=10&view=summary&slice=true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.content[0].excerpt").value("Body 1"))
+                .andExpect(jsonPath("$.data.content[0].body").doesNotExist())
+                .andExpect(jsonPath("$.data.last").value(false))
+                .andExpect(jsonPath("$.data.totalElements").doesNotExist());
+
+        verify(postService, times(1)).findSummarySlice(any());
+        verify(postService, never()).findSummaries(any());
+        verify(postService, never()).findSlice(any());
+    }
+
+    @Test
+    @DisplayName("GET /api/posts?slice=true - Should retrieve posts without counting them")
+    void testFindPostsSlice() throws Exception {
+        // Arrange
+        Post post1 = new Post(1, 1, "Post 1", "Body 1", false, LocalDateTime.now());
+        Post post2 = new Post(2, 1, "Post 2", "Body 2", false, LocalDateTime.now());
+        Slice<Post> postSlice = new SliceImpl<>(Arrays.asList(post1, post2), PageRequest.of(0, 2), false);
+
+        when(postService.findSlice(any())).thenReturn(postSlice);
+
+        // Act & Assert
+        mockMvc.perform(get("/api/posts?page=0&size=2&slice=true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.content.length()").value(2))
+                .andExpect(jsonPath("$.data.last").value(true))
+                .andExpect(jsonPath("$.data.totalElements").doesNotExist());
+
+        verify(postService, times(1)).findSlice(any());
+        verify(postService, never()).findAll(any());
+    }
+
+    @Test
+    @DisplayName("GET /api/posts?cursor - Should retrieve the first page of posts by cursor")
+    void testFindPostsByCursor() throws Exception {
+        // Arrange
+        Post post1 = new Post(2, 1, "Post 2", "Body 2", false, LocalDateTime.now());
+        Post post2 = new Post(1, 1, "Post 1", "Body 1", false, LocalDateTime.now().minusMinutes(1));
+        String next = PostCursor.after(post2).encode();
+        CursorPage<Post> cursorPage = new CursorPage<>(Arrays.asList(post1, post2), true, false, next, null);
+
+        when(postService.findByCursor(isNull(), eq(2))).thenReturn(cursorPage);
+
+        // Act & Assert
+        mockMvc.perform(get("/api/posts?cursor=&size=2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.items.length()").value(2))
+                .andExpect(jsonPath("$.data.hasNext").value(true))
+                .andExpect(jsonPath("$.data.nextCursor").value(next));
+
+        verify(postService, times(1)).findByCursor(isNull(), eq(2));
+    }
+
+    @Test
+    @DisplayName("GET /api/posts?cursor - Should return 400 for a malformed cursor")
+    void testFindPostsByMalformedCursor() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/api/posts?cursor=not-a-cursor"))
+                .andExpect(status().isBadRequest());
+
+        verify(postService, never()).findByCursor(any(), anyInt());
+    }
+
     @Test
     @DisplayName("POST /api/posts - Should create post successfully")
     void testCreatePost() throws Exception {
@@ -247,6 +467,32 @@ class RestPostControllerTest {
         verify(postService, times(1)).delete(999);
     }
 
+    @Test
+    @DisplayName("DELETE /api/posts?ids= - Should delete posts in bulk")
+    void testDeletePosts() throws Exception {
+        // Arrange
+        when(postService.deleteAll(List.of(1, 2, 3))).thenReturn(2);
+
+        // Act & Assert
+        mockMvc.perform(delete("/api/posts?ids=1,2,3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data").value(2))
+                .andExpect(jsonPath("$.message").value("Posts deleted successfully"));
+
+        verify(postService, times(1)).deleteAll(List.of(1, 2, 3));
+        verify(postService, never()).delete(anyInt());
+    }
+
+    @Test
+    @DisplayName("DELETE /api/posts?ids= - Should return 400 for an invalid post ID")
+    void testDeletePostsInvalidId() throws Exception {
+        // Act & Assert
+        mockMvc.perform(delete("/api/posts?ids=1,0"))
+                .andExpect(status().isBadRequest());
+
+        verify(postService, never()).deleteAll(any());
+    }
+
     @Test
     @DisplayName("GET /api/posts/{id} - Should return 400 for invalid post ID")
     void testFindPostWithInvalidId() throws Exception {
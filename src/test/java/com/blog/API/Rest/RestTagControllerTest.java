@@ -1,8 +1,10 @@
 package com.blog.API.Rest;
 
 import com.blog.DataTransporter.Tags.PostTagsDTO;
+import com.blog.DataTransporter.Tags.TagCountDTO;
 import com.blog.Model.PostTags;
 import com.blog.Service.TagService;
+import com.blog.Service.TagStatisticsService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.AfterEach;
@@ -15,6 +17,8 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
@@ -22,6 +26,7 @@ import java.util.Arrays;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -36,6 +41,9 @@ class RestTagControllerTest {
     @MockBean
     private TagService tagService;
 
+    @MockBean
+    private TagStatisticsService tagStatistics;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -89,6 +97,79 @@ class RestTagControllerTest {
         verify(tagService, times(1)).findAll(any());
     }
 
+    @Test
+    @DisplayName("GET /api/tags?slice=true - Should retrieve tags without counting them")
+    void testFindTagsSlice() throws Exception {
+        // Arrange
+        PostTags tag1 = new PostTags("1", 1, Arrays.asList("Java", "Spring"));
+        Slice<PostTags> tagsSlice = new SliceImpl<>(Arrays.asList(tag1), PageRequest.of(0, 1), true);
+
+        when(tagService.findSlice(any())).thenReturn(tagsSlice);
+
+        // Act & Assert
+        mockMvc.perform(get("/api/tags?page=0&size=1&slice=true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.content.length()").value(1))
+                .andExpect(jsonPath("$.data.last").value(false))
+                .andExpect(jsonPath("$.data.totalElements").doesNotExist());
+
+        verify(tagService, times(1)).findSlice(any());
+        verify(tagService, never()).findAll(any());
+    }
+
+    @Test
+    @DisplayName("GET /api/tags/popular - Should retrieve the most used tags")
+    void testFindPopularTags() throws Exception {
+        // Arrange
+        when(tagStatistics.mostUsedWithPrefix("sp", 2)).thenReturn(List.of(new TagCountDTO("spring", 12), new TagCountDTO("sports", 3)));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/tags/popular?limit=2&prefix=sp"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.length()").value(2))
+                .andExpect(jsonPath("$.data[0].tag").value("spring"))
+                .andExpect(jsonPath("$.data[0].count").value(12));
+
+        verify(tagStatistics, times(1)).mostUsedWithPrefix("sp", 2);
+        verify(tagService, never()).findAll(any());
+    }
+
+    @Test
+    @DisplayName("GET /api/tags/popular - Should return 400 for an out of range limit")
+    void testFindPopularTagsInvalidLimit() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/api/tags/popular?limit=0"))
+                .andExpect(status().isBadRequest());
+
+        verify(tagStatistics, never()).mostUsed(anyInt());
+    }
+
+    @Test
+    @DisplayName("GET /api/tags/suggest - Should complete a tag prefix")
+    void testSuggestTags() throws Exception {
+        // Arrange
+        when(tagStatistics.complete("Sp", 10)).thenReturn(List.of(new TagCountDTO("spring", 12), new TagCountDTO("Sports", 3)));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/tags/suggest?q=Sp"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.length()").value(2))
+                .andExpect(jsonPath("$.data[1].tag").value("Sports"))
+                .andExpect(jsonPath("$.message").value("Tag suggestions retrieved successfully"));
+
+        verify(tagStatistics, times(1)).complete("Sp", 10);
+    }
+
+    @Test
+    @DisplayName("GET /api/tags/suggest - Should return 400 when asking for too many suggestions")
+    void testSuggestTagsInvalidLimit() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/api/tags/suggest?q=sp&limit=11"))
+                .andExpect(status().isBadRequest());
+
+        verify(tagStatistics, never()).complete(any(), anyInt());
+    }
+
     @Test
     @DisplayName("GET /api/tags/{postId} - Should retrieve tags by post ID")
     void testFindTagsByPostId() throws Exception {
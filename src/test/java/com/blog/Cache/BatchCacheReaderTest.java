@@ -0,0 +1,67 @@
+package com.blog.Cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@DisplayName("BatchCacheReader Tests")
+class BatchCacheReaderTest {
+    private ConcurrentMapCache target;
+    private CacheChangeListener listener;
+    private CacheInvalidationBus bus;
+    private BatchCacheReader<Integer, List<String>> reader;
+
+    @BeforeEach
+    void setUp() {
+        target = new ConcurrentMapCache("PostTags.findByPostId");
+        listener = mock(CacheChangeListener.class);
+        bus = mock(CacheInvalidationBus.class);
+        BroadcastingCache outermost = new BroadcastingCache(new TrackingCache(new CoalescingCache(target, Duration.ofSeconds(1), new SimpleMeterRegistry()), List.of(listener)), bus);
+        reader = new BatchCacheReader<>(outermost, List.of(), new SimpleMeterRegistry());
+    }
+
+    @Test
+    @DisplayName("Should load only the misses, in one call, and fill them without reporting a write")
+    void testFillsMissesUntracked() {
+        // Arrange
+        target.put(1, List.of("java"));
+
+        // Act
+        Map<Integer, List<String>> tags = reader.get(List.of(1, 2, 3), missing -> {
+            assertThat(missing).containsExactly(2, 3);
+            return Map.of(2, List.of("spring"));
+        });
+
+        // Assert
+        assertThat(tags).containsEntry(1, List.of("java")).containsEntry(2, List.of("spring")).containsEntry(3, List.of());
+        assertThat(target.get(3)).isNotNull();
+        verify(listener, never()).changed(anyString(), any());
+        verify(bus, never()).publish(anyString(), any());
+    }
+
+    @Test
+    @DisplayName("Should not call the loader when every key is cached")
+    void testAllHits() {
+        // Arrange
+        target.put(1, List.of("java"));
+
+        // Act
+        Map<Integer, List<String>> tags = reader.get(List.of(1, 1), missing -> {
+            throw new AssertionError("loaded " + missing);
+        });
+
+        // Assert
+        assertThat(tags).containsOnlyKeys(1);
+    }
+}
@@ -0,0 +1,71 @@
+package com.blog.Cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("BodySlab Tests")
+class BodySlabTest {
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    @DisplayName("Should load back exactly the text it stored, across chunks, with and without compression")
+    void testRoundTrip() {
+        // Arrange
+        String[] bodies = {
+                "",
+                "Short body",
+                "Spring Boot ".repeat(100),
+                "Grüße, 日本語 and emoji 🚀 ".repeat(20)
+        };
+
+        // Act & Assert
+        for (boolean compress : new boolean[] {false, true}) {
+            BodySlab slab = new BodySlab(64 * 1024, 64, compress, registry);
+            for (String body : bodies) {
+                BodySlab.Handle handle = slab.store(body);
+                assertThat(handle).isNotNull();
+                assertThat(slab.load(handle)).isEqualTo(body);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should refuse a body that doesn't fit, leaving it on the heap")
+    void testFull() {
+        // Arrange
+        BodySlab slab = new BodySlab(256, 64, false, registry);
+
+        // Act & Assert
+        assertThat(slab.store("x".repeat(257))).isNull();
+        assertThat(registry.counter("blog.cache.offheap.rejected").count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should reuse the chunks of a body once nothing references it")
+    void testChunkReuse() throws InterruptedException {
+        // Arrange
+        BodySlab slab = new BodySlab(256, 64, false, registry);
+        BodySlab.Handle handle = slab.store("a".repeat(256));
+        assertThat(handle).isNotNull();
+        assertThat(slab.store("b")).isNull();
+        handle = null;
+
+        // Act
+        BodySlab.Handle reused = null;
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (reused == null && System.nanoTime() < deadline) {
+            System.gc();
+            Thread.sleep(10);
+            reused = slab.store("b".repeat(256));
+        }
+
+        // Assert
+        assertThat(reused).isNotNull();
+        assertThat(slab.load(reused)).isEqualTo("b".repeat(256));
+    }
+}
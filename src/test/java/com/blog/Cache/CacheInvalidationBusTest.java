@@ -0,0 +1,220 @@
+package com.blog.Cache;
+
+import com.blog.Config.AppConfig;
+import com.blog.Config.CacheProperties;
+import com.blog.Model.Comment;
+import com.blog.Model.Post;
+import com.blog.Utility.CursorPage;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+// Two buses stand in for two instances; the payloads one of them would NOTIFY are captured and handed to
+// the other's listener side directly
+@DisplayName("CacheInvalidationBus Tests")
+class CacheInvalidationBusTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private PreparedStatement statement;
+    private CacheInvalidationBus local;
+    private CacheInvalidationBus peer;
+    private ConcurrentMapCache localPosts;
+    private ConcurrentMapCache peerPosts;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        statement = mock(PreparedStatement.class);
+        Connection connection = mock(Connection.class);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        DataSource dataSource = mock(DataSource.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        local = new CacheInvalidationBus(dataSource, "cache_invalidation", Duration.ZERO, Duration.ofSeconds(1), new SimpleMeterRegistry());
+        peer = new CacheInvalidationBus(dataSource, "cache_invalidation", Duration.ZERO, Duration.ofSeconds(1), new SimpleMeterRegistry());
+        localPosts = new ConcurrentMapCache("Post.findById");
+        peerPosts = new ConcurrentMapCache("Post.findById");
+        new BroadcastingCache(localPosts, local);
+        new BroadcastingCache(peerPosts, peer);
+    }
+
+    @Test
+    @DisplayName("Should evict a key on peers but not on the node that sent it")
+    void testIgnoresOwnMessages() throws Exception {
+        // Arrange
+        localPosts.put(1, "post");
+        peerPosts.put(1, "post");
+        local.send(List.of(new CacheInvalidationBus.Event("Post.findById", CacheKeyCodec.encode(1), false, false)));
+        String payload = sentPayloads().getFirst();
+
+        // Act
+        local.receive(payload);
+        peer.receive(payload);
+
+        // Assert
+        assertThat(localPosts.get(1)).isNotNull();
+        assertThat(peerPosts.get(1)).isNull();
+    }
+
+    @Test
+    @DisplayName("Should clear the whole cache on peers for a clear event")
+    void testClear() throws Exception {
+        // Arrange
+        peerPosts.put(1, "post");
+        peerPosts.put(2, "post");
+        local.send(List.of(new CacheInvalidationBus.Event("Post.findById", null, true, false)));
+
+        // Act
+        peer.receive(sentPayloads().getFirst());
+
+        // Assert
+        assertThat(peerPosts.getNativeCache()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should split a large batch into notifications under the Postgres payload limit")
+    void testChunksLargeBatches() throws Exception {
+        // Arrange
+        List<CacheInvalidationBus.Event> events = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) events.add(new CacheInvalidationBus.Event("Post.findById", CacheKeyCodec.encode(i), false, false));
+
+        // Act
+        local.send(events);
+
+        // Assert
+        List<String> payloads = sentPayloads();
+        assertThat(payloads).hasSizeGreaterThan(1);
+        int delivered = 0;
+        for (String payload : payloads) {
+            assertThat(payload.getBytes(StandardCharsets.UTF_8).length).isLessThan(8000);
+            delivered += objectMapper.readTree(payload).path("events").size();
+        }
+        assertThat(delivered).isEqualTo(2000);
+    }
+
+    @Test
+    @DisplayName("Should send a key too large for one notification as a clear of its cache")
+    void testOversizedKeyBecomesClear() throws Exception {
+        // Arrange
+        peerPosts.put(1, "post");
+        String key = "x".repeat(5000);
+
+        // Act
+        local.send(List.of(new CacheInvalidationBus.Event("Post.findById", CacheKeyCodec.encode(key), false, false)));
+
+        // Assert
+        String payload = sentPayloads().getFirst();
+        JsonNode event = objectMapper.readTree(payload).path("events").get(0);
+        assertThat(event.path("clear").asBoolean()).isTrue();
+        assertThat(payload.getBytes(StandardCharsets.UTF_8).length).isLessThan(8000);
+        peer.receive(payload);
+        assertThat(peerPosts.getNativeCache()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should drop a page only a peer cached when a node that never cached it writes a post")
+    void testPostWriteReachesPagesCachedOnlyOnPeer() throws Exception {
+        // Arrange
+        CacheManager writer = cacheManager(local);
+        CacheManager reader = cacheManager(peer);
+        Cache peerPages = reader.getCache("Post.getAll");
+        List<Object> key = List.of(0, 20, Sort.unsorted());
+        Post existing = new Post(1, 1, "First", "Body", false, LocalDateTime.of(2024, 1, 1, 12, 0));
+        CacheDecorator.fill(peerPages, key, new PageImpl<>(List.of(existing), PageRequest.of(0, 20), 1));
+
+        // Act
+        PagedCache.from(writer, "Post.getAll").inserted(new Post(2, 1, "Second", "Body", false, LocalDateTime.of(2024, 1, 2, 12, 0)));
+        local.flush();
+        peer.receive(sentPayloads().getFirst());
+
+        // Assert
+        assertThat(peerPages.get(key)).isNull();
+    }
+
+    @Test
+    @DisplayName("Should drop a peer's comment pages of the written post only")
+    void testCommentWriteReachesPeerGroup() throws Exception {
+        // Arrange
+        CacheManager writer = cacheManager(local);
+        CacheManager reader = cacheManager(peer);
+        Cache peerPages = reader.getCache("Comment.findPage");
+        List<Object> written = List.of(1, "", 20);
+        List<Object> untouched = List.of(2, "", 20);
+        Comment first = new Comment(1, 1, 1, "Nice", LocalDateTime.of(2024, 1, 1, 12, 0));
+        Comment other = new Comment(2, 1, 2, "Also nice", LocalDateTime.of(2024, 1, 1, 12, 0));
+        CacheDecorator.fill(peerPages, written, new CursorPage<>(List.of(first), false, false, null, null));
+        CacheDecorator.fill(peerPages, untouched, new CursorPage<>(List.of(other), false, false, null, null));
+
+        // Act
+        KeysetPagedCache.from(writer, "Comment.findPage").changed(1, new Comment(3, 2, 1, "Late", LocalDateTime.of(2024, 1, 2, 12, 0)));
+        local.flush();
+        peer.receive(sentPayloads().getFirst());
+
+        // Assert
+        assertThat(peerPages.get(written)).isNull();
+        assertThat(peerPages.get(untouched)).isNotNull();
+    }
+
+    @Test
+    @DisplayName("Should run peer change handlers with the decoded key, or null for a clear, on peers only")
+    void testPeerChangeHandlers() throws Exception {
+        // Arrange
+        List<Object> localChanges = new ArrayList<>();
+        List<Object> peerChanges = new ArrayList<>();
+        local.onPeerChange("PostTags.findByPostId", localChanges::add);
+        peer.onPeerChange("PostTags.findByPostId", peerChanges::add);
+        local.send(List.of(
+                new CacheInvalidationBus.Event("PostTags.findByPostId", CacheKeyCodec.encode(7), false, false),
+                new CacheInvalidationBus.Event("Post.findById", CacheKeyCodec.encode(8), false, false),
+                new CacheInvalidationBus.Event("PostTags.findByPostId", null, true, false)
+        ));
+        String payload = sentPayloads().getFirst();
+
+        // Act
+        local.receive(payload);
+        peer.receive(payload);
+
+        // Assert
+        assertThat(localChanges).isEmpty();
+        assertThat(peerChanges).containsExactly(7, null);
+    }
+
+    // The application's full cache chain for one instance, broadcasting on the given bus
+    @SuppressWarnings("unchecked")
+    private CacheManager cacheManager(CacheInvalidationBus bus) {
+        ObjectProvider<CacheInvalidationBus> invalidationBus = mock(ObjectProvider.class);
+        when(invalidationBus.getIfAvailable()).thenReturn(bus);
+        ObjectProvider<ResponseCache> responseCache = mock(ObjectProvider.class);
+        SimpleCacheManager cacheManager = (SimpleCacheManager) new AppConfig().cacheManager(new CacheProperties(), new SimpleMeterRegistry(), invalidationBus, responseCache);
+        cacheManager.initializeCaches();
+        return cacheManager;
+    }
+    private List<String> sentPayloads() throws Exception {
+        ArgumentCaptor<String> payloads = ArgumentCaptor.forClass(String.class);
+        verify(statement, atLeastOnce()).setString(eq(2), payloads.capture());
+        return payloads.getAllValues();
+    }
+}
@@ -0,0 +1,68 @@
+package com.blog.Cache;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("CacheKeyCodec Tests")
+class CacheKeyCodecTest {
+
+    @Test
+    @DisplayName("Should decode every supported key to one equal to the original")
+    void testRoundTrip() {
+        // Arrange
+        List<Object> keys = List.of(
+                42,
+                42L,
+                "java",
+                "",
+                SimpleKey.EMPTY,
+                Sort.unsorted(),
+                Sort.by(Sort.Order.desc("createdAt"), Sort.Order.asc("id")),
+                List.of(),
+                List.of(0, 10, Sort.by("title"), "draft")
+        );
+
+        // Act & Assert
+        for (Object key : keys) {
+            String encoded = CacheKeyCodec.encode(key);
+            assertThat(encoded).as("encoding of %s", key).isNotNull();
+            assertThat(CacheKeyCodec.decode(encoded)).isEqualTo(key);
+        }
+    }
+
+    @Test
+    @DisplayName("Should keep keys of different types apart")
+    void testTypesDistinct() {
+        // Act & Assert
+        assertThat(CacheKeyCodec.encode(1)).isNotEqualTo(CacheKeyCodec.encode(1L)).isNotEqualTo(CacheKeyCodec.encode("1"));
+    }
+
+    @Test
+    @DisplayName("Should refuse keys it can't represent, so the receiver clears the cache instead")
+    void testUnsupportedKeys() {
+        // Act & Assert
+        assertThat(CacheKeyCodec.encode(new Object())).isNull();
+        assertThat(CacheKeyCodec.encode("a\u001Fb")).isNull();
+        assertThat(CacheKeyCodec.encode(List.of(List.of(1)))).isNull();
+        assertThat(CacheKeyCodec.encode(Sort.by(Sort.Order.asc("title").ignoreCase()))).isNull();
+        assertThat(CacheKeyCodec.encode(new SimpleKey(1, 2))).isNull();
+    }
+
+    @Test
+    @DisplayName("Should decode malformed input from a peer to null")
+    void testMalformedInput() {
+        // Act & Assert
+        assertThat(CacheKeyCodec.decode("")).isNull();
+        assertThat(CacheKeyCodec.decode("i")).isNull();
+        assertThat(CacheKeyCodec.decode("i:abc")).isNull();
+        assertThat(CacheKeyCodec.decode("x:1")).isNull();
+        assertThat(CacheKeyCodec.decode("o:title:SIDEWAYS")).isNull();
+        assertThat(CacheKeyCodec.decode("p:i:1\u001Fz:2")).isNull();
+    }
+}
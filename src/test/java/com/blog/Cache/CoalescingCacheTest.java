@@ -0,0 +1,117 @@
+package com.blog.Cache;
+
+import com.blog.Exception.CacheLoadTimeoutException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("CoalescingCache Tests")
+class CoalescingCacheTest {
+    private SimpleMeterRegistry registry;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Should run one load for concurrent misses on the same key")
+    void testOneLoadPerKey() throws Exception {
+        // Arrange
+        CoalescingCache cache = cache(Duration.ofSeconds(5));
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        Callable<String> loader = () -> {
+            loads.incrementAndGet();
+            release.await();
+            return "post";
+        };
+
+        // Act
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) results.add(executor.submit(() -> cache.<String>get(1, loader)));
+        awaitWaiters(7);
+        release.countDown();
+
+        // Assert
+        for (Future<String> result : results) assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("post");
+        assertThat(loads).hasValue(1);
+        assertThat(cache.get(1)).isNotNull();
+    }
+
+    @Test
+    @DisplayName("Should give up waiting on another caller's load after the timeout")
+    void testWaiterTimeout() throws Exception {
+        // Arrange
+        CoalescingCache cache = cache(Duration.ofMillis(50));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> owner = executor.submit(() -> cache.<String>get(1, () -> {
+            started.countDown();
+            release.await();
+            return "post";
+        }));
+        started.await();
+
+        // Act & Assert
+        assertThatThrownBy(() -> cache.get(1, () -> "other")).isInstanceOf(CacheLoadTimeoutException.class);
+        release.countDown();
+        assertThat(owner.get(5, TimeUnit.SECONDS)).isEqualTo("post");
+        assertThat(registry.counter("blog.cache.load.timeouts", "cache", "Post.findById").count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should hand an Error to the waiters and let the next caller load again")
+    void testLoaderError() throws Exception {
+        // Arrange
+        CoalescingCache cache = cache(Duration.ofSeconds(5));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> owner = executor.submit(() -> cache.<String>get(1, () -> {
+            started.countDown();
+            release.await();
+            throw new StackOverflowError();
+        }));
+        started.await();
+        Future<String> waiter = executor.submit(() -> cache.<String>get(1, () -> "other"));
+        awaitWaiters(1);
+
+        // Act
+        release.countDown();
+
+        // Assert
+        assertThatThrownBy(() -> owner.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(StackOverflowError.class);
+        assertThatThrownBy(() -> waiter.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(StackOverflowError.class);
+        assertThat(cache.get(1, () -> "post")).isEqualTo("post");
+    }
+
+    private CoalescingCache cache(Duration loadTimeout) {
+        return new CoalescingCache(new ConcurrentMapCache("Post.findById"), loadTimeout, registry);
+    }
+    private void awaitWaiters(int waiters) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (registry.counter("blog.cache.coalesced", "cache", "Post.findById").count() < waiters) {
+            if (System.nanoTime() > deadline) throw new AssertionError("Waiters never queued");
+            Thread.sleep(5);
+        }
+    }
+}
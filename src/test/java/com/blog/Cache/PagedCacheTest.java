@@ -0,0 +1,85 @@
+package com.blog.Cache;
+
+import com.blog.Model.Post;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("PagedCache Tests")
+class PagedCacheTest {
+    private static final Sort BY_ID = Sort.by("id");
+
+    private PagedCache cache;
+    private List<Object> notified;
+
+    @BeforeEach
+    void setUp() {
+        cache = new PagedCache(new ConcurrentMapCache("Post.getAll"), PageOrdering.of(Post.class, Post::getId, Map.<String, Function<Post, Comparable<?>>>of("id", Post::getId)));
+        notified = new ArrayList<>();
+        cache.subscribe(notified::add);
+        cache.put(key(0), page(0, 5, post(1), post(2)));
+        cache.put(key(1), page(1, 5, post(3), post(4)));
+        cache.put(key(2), page(2, 5, post(5)));
+    }
+
+    @Test
+    @DisplayName("updated - Should drop only the page holding the post")
+    void testUpdateDropsOwnPage() {
+        // Act
+        cache.updated(post(3), post(3));
+
+        // Assert
+        assertThat(cache.get(key(0))).isNotNull();
+        assertThat(cache.get(key(1))).isNull();
+        assertThat(cache.get(key(2))).isNotNull();
+        assertThat(notified).containsExactly(key(1));
+    }
+
+    @Test
+    @DisplayName("inserted - Should re-stamp the total of full pages before the new post and drop the page it lands on")
+    void testInsertRebasesEarlierPages() {
+        // Act
+        cache.inserted(post(6));
+
+        // Assert
+        assertThat(((Page<?>) cache.get(key(0)).get()).getTotalElements()).isEqualTo(6);
+        assertThat(((Page<?>) cache.get(key(1)).get()).getTotalElements()).isEqualTo(6);
+        assertThat(cache.get(key(2))).isNull();
+        assertThat(notified).containsExactlyInAnyOrder(key(0), key(1), key(2));
+    }
+
+    @Test
+    @DisplayName("deleted - Should drop the pages at or after the deleted post and re-stamp the ones before it")
+    void testDeleteShiftsLaterPages() {
+        // Act
+        cache.deleted(post(4));
+
+        // Assert
+        assertThat(((Page<?>) cache.get(key(0)).get()).getTotalElements()).isEqualTo(4);
+        assertThat(cache.get(key(1))).isNull();
+        assertThat(cache.get(key(2))).isNull();
+    }
+
+    private static List<Object> key(int page) {
+        return List.of(page, 2, BY_ID);
+    }
+    private static Page<Post> page(int number, long total, Post... posts) {
+        return new PageImpl<>(List.of(posts), PageRequest.of(number, 2, BY_ID), total);
+    }
+    private static Post post(int id) {
+        return new Post(id, 1, "Post " + id, "Body " + id, false, LocalDateTime.of(2024, 1, 1, 12, 0), 1L);
+    }
+}
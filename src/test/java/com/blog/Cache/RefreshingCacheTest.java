@@ -0,0 +1,116 @@
+package com.blog.Cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("RefreshingCache Tests")
+class RefreshingCacheTest {
+    private RefreshingCache cache;
+    private AtomicLong count;
+    private AtomicInteger running;
+    private AtomicInteger mostRunning;
+    private AtomicInteger loads;
+    private CountDownLatch started;
+    private CountDownLatch release;
+
+    @BeforeEach
+    void setUp() {
+        cache = new RefreshingCache(new ConcurrentMapCache("Post.count"), Duration.ofMinutes(1));
+        count = new AtomicLong(10);
+        running = new AtomicInteger();
+        mostRunning = new AtomicInteger();
+        loads = new AtomicInteger();
+        started = new CountDownLatch(1);
+        release = new CountDownLatch(1);
+        cache.register("count", () -> {
+            mostRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            loads.incrementAndGet();
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            running.decrementAndGet();
+            return count.get();
+        });
+        cache.put("count", 10L);
+    }
+
+    @Test
+    @DisplayName("Should serve the stale value while a single refresh runs")
+    void testServesStaleDuringRefresh() throws Exception {
+        // Arrange
+        count.set(11);
+
+        // Act
+        cache.evict("count");
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        cache.evict("count");
+        cache.evict("count");
+
+        // Assert
+        assertThat(cache.get("count").get()).isEqualTo(10L);
+        release.countDown();
+        // The evicts made during the first refresh share one follow-up
+        await(() -> loads.get() == 2 && running.get() == 0);
+        assertThat(cache.get("count").get()).isEqualTo(11L);
+        assertThat(mostRunning).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("Should stop serving a value that has been stale for longer than allowed")
+    void testMaxStaleness() throws Exception {
+        // Arrange
+        cache = new RefreshingCache(new ConcurrentMapCache("Post.count"), Duration.ZERO);
+        cache.register("count", () -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return count.get();
+        });
+        cache.put("count", 10L);
+
+        // Act
+        cache.evict("count");
+        Thread.sleep(5);
+
+        // Assert
+        assertThat(cache.get("count")).isNull();
+        release.countDown();
+    }
+
+    @Test
+    @DisplayName("Should evict keys without a registered loader right away")
+    void testUnregisteredKey() {
+        // Arrange
+        cache.put("other", 1L);
+
+        // Act
+        cache.evict("other");
+
+        // Assert
+        assertThat(cache.get("other")).isNull();
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) throw new AssertionError("Refresh never landed");
+            Thread.sleep(5);
+        }
+    }
+}
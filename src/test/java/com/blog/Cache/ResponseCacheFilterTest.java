@@ -0,0 +1,126 @@
+package com.blog.Cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("ResponseCacheFilter Tests")
+class ResponseCacheFilterTest {
+    private ResponseCache responses;
+    private ResponseCacheFilter filter;
+    private AtomicInteger rendered;
+
+    @BeforeEach
+    void setUp() {
+        responses = new ResponseCache(1024 * 1024, Duration.ofMinutes(1), new SimpleMeterRegistry());
+        filter = new ResponseCacheFilter(responses, request -> request.getRequestURI().equals("/api/posts/tagged"));
+        rendered = new AtomicInteger();
+    }
+
+    @Test
+    @DisplayName("Should serve a 200 that read a cache entry from the stored bytes")
+    void testStoresResponseThatReadCache() throws Exception {
+        // Arrange
+        perform("/api/posts/1", chain(HttpServletResponse.SC_OK, true));
+
+        // Act
+        MockHttpServletResponse response = perform("/api/posts/1", chain(HttpServletResponse.SC_OK, true));
+
+        // Assert
+        assertThat(rendered).hasValue(1);
+        assertThat(response.getStatus()).isEqualTo(HttpServletResponse.SC_OK);
+        assertThat(response.getContentAsString()).isEqualTo("{\"id\":1}");
+        assertThat(response.getHeader("ETag")).isNotNull();
+    }
+
+    @Test
+    @DisplayName("Should answer a matching If-None-Match from the stored response with 304")
+    void testNotModifiedFromStoredResponse() throws Exception {
+        // Arrange
+        String etag = perform("/api/posts/1", chain(HttpServletResponse.SC_OK, true)).getHeader("ETag");
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/posts/1");
+        request.addHeader("If-None-Match", etag);
+
+        // Act
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain(HttpServletResponse.SC_OK, true));
+
+        // Assert
+        assertThat(response.getStatus()).isEqualTo(HttpServletResponse.SC_NOT_MODIFIED);
+        assertThat(rendered).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("Should not store a 200 that read no cache entry")
+    void testSkipsResponseWithoutCacheRead() throws Exception {
+        // Act
+        perform("/api/posts/1", chain(HttpServletResponse.SC_OK, false));
+        perform("/api/posts/1", chain(HttpServletResponse.SC_OK, false));
+
+        // Assert
+        assertThat(rendered).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("Should not store an error response")
+    void testSkipsErrorResponse() throws Exception {
+        // Act
+        perform("/api/posts/1", chain(HttpServletResponse.SC_NOT_FOUND, true));
+        MockHttpServletResponse response = perform("/api/posts/1", chain(HttpServletResponse.SC_NOT_FOUND, true));
+
+        // Assert
+        assertThat(rendered).hasValue(2);
+        assertThat(response.getStatus()).isEqualTo(HttpServletResponse.SC_NOT_FOUND);
+    }
+
+    @Test
+    @DisplayName("Should drop a stored response once an entry it read changes")
+    void testDropsResponseOnChange() throws Exception {
+        // Arrange
+        perform("/api/posts/1", chain(HttpServletResponse.SC_OK, true));
+
+        // Act
+        responses.changed("Post.findById", 1);
+        perform("/api/posts/1", chain(HttpServletResponse.SC_OK, true));
+
+        // Assert
+        assertThat(rendered).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("Should pass bypassed requests straight through")
+    void testBypassed() throws Exception {
+        // Act
+        perform("/api/posts/tagged", chain(HttpServletResponse.SC_OK, true));
+        perform("/api/posts/tagged", chain(HttpServletResponse.SC_OK, true));
+
+        // Assert
+        assertThat(rendered).hasValue(2);
+    }
+
+    private MockHttpServletResponse perform(String uri, FilterChain chain) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", uri), response, chain);
+        return response;
+    }
+    private FilterChain chain(int status, boolean readsCache) {
+        return (request, response) -> {
+            rendered.incrementAndGet();
+            if (readsCache) CacheReadRecorder.record("Post.findById", 1);
+            HttpServletResponse http = (HttpServletResponse) response;
+            http.setStatus(status);
+            http.setContentType("application/json");
+            http.getWriter().write("{\"id\":1}");
+        };
+    }
+}
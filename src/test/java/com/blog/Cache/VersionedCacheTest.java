@@ -0,0 +1,99 @@
+package com.blog.Cache;
+
+import com.blog.Model.Post;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("VersionedCache Tests")
+class VersionedCacheTest {
+    private VersionedCache cache;
+
+    @BeforeEach
+    void setUp() {
+        CaffeineCache target = new CaffeineCache("Post.findById", Caffeine.newBuilder().build());
+        cache = new VersionedCache(target, value -> value instanceof Post post ? post.getVersion() : null, Duration.ofMinutes(1));
+    }
+
+    @Test
+    @DisplayName("Should keep the newer version when an older one is put after it")
+    void testOlderPutIgnored() {
+        // Act
+        cache.put(1, post(2));
+        cache.put(1, post(1));
+
+        // Assert
+        assertThat(versionCached(1)).isEqualTo(2L);
+    }
+
+    @Test
+    @DisplayName("Should turn away the evicted version but accept a newer one")
+    void testEvictOfCachedEntry() {
+        // Arrange
+        cache.put(1, post(3));
+
+        // Act
+        cache.evict(1);
+        cache.put(1, post(3));
+
+        // Assert
+        assertThat(cache.get(1)).isNull();
+        cache.put(1, post(4));
+        assertThat(versionCached(1)).isEqualTo(4L);
+    }
+
+    @Test
+    @DisplayName("Should keep caching after evicting an entry that wasn't cached")
+    void testEvictOfUncachedEntry() {
+        // Act
+        cache.evict(1);
+        cache.put(1, post(5));
+
+        // Assert
+        assertThat(versionCached(1)).isEqualTo(5L);
+    }
+
+    @Test
+    @DisplayName("Should turn away versions older than the one written, but accept that one")
+    void testWrittenVersion() {
+        // Arrange
+        cache.written(1, 5L);
+        cache.evict(1);
+
+        // Act
+        cache.put(1, post(4));
+        cache.putIfAbsent(1, post(4));
+
+        // Assert
+        assertThat(cache.get(1)).isNull();
+        cache.put(1, post(5));
+        assertThat(versionCached(1)).isEqualTo(5L);
+    }
+
+    @Test
+    @DisplayName("Should turn away every version after a delete")
+    void testDeleted() {
+        // Act
+        cache.deleted(1);
+        cache.evict(1);
+        cache.put(1, post(5));
+        cache.putIfAbsent(1, post(6));
+
+        // Assert
+        assertThat(cache.get(1)).isNull();
+    }
+
+    private Long versionCached(int id) {
+        return ((Post) cache.get(id).get()).getVersion();
+    }
+    private static Post post(long version) {
+        return new Post(1, 1, "Title", "Body", false, LocalDateTime.of(2024, 1, 1, 12, 0), version);
+    }
+}
@@ -0,0 +1,122 @@
+package com.blog.Search;
+
+import com.blog.Model.Post;
+import com.blog.Utility.SearchCursor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("PostIndex Tests")
+class PostIndexTest {
+    private PostIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new PostIndex(new SimpleMeterRegistry());
+    }
+
+    @Test
+    @DisplayName("Should rank posts matching every query term above those matching one")
+    void testAllTermsRankFirst() {
+        // Arrange
+        index.index(post(1, "Caching", "Notes about spring caching", 1), List.of());
+        index.index(post(2, "Boot", "Getting started with spring boot", 1), List.of());
+        index.index(post(3, "Kotlin", "Nothing relevant here", 1), List.of());
+
+        // Act
+        List<PostIndex.Hit> hits = index.search("spring boot", null, 10);
+
+        // Assert
+        assertThat(hits).extracting(PostIndex.Hit::postId).containsExactly(2, 1);
+    }
+
+    @Test
+    @DisplayName("Should rank a title match above a tag match, and a tag match above a body match")
+    void testFieldWeights() {
+        // Arrange
+        index.index(post(1, "Other", "A post on postgres", 1), List.of());
+        index.index(post(2, "Postgres", "A post on databases", 1), List.of());
+        index.index(post(3, "Another", "A post on databases", 1), List.of("postgres"));
+        index.index(post(4, "Unrelated", "Nothing to see", 1), List.of());
+
+        // Act
+        List<PostIndex.Hit> hits = index.search("postgres", null, 10);
+
+        // Assert
+        assertThat(hits).extracting(PostIndex.Hit::postId).containsExactly(2, 3, 1);
+    }
+
+    @Test
+    @DisplayName("Should page strictly after the cursor without repeating or skipping hits")
+    void testCursorPaging() {
+        // Arrange
+        for (int id = 1; id <= 5; id++) index.index(post(id, "Spring " + id, "spring ".repeat(id), 1), List.of());
+        List<PostIndex.Hit> all = index.search("spring", null, 10);
+
+        // Act
+        List<PostIndex.Hit> first = index.search("spring", null, 2);
+        PostIndex.Hit last = first.getLast();
+        List<PostIndex.Hit> rest = index.search("spring", new SearchCursor(last.score(), last.postId()), 10);
+
+        // Assert
+        assertThat(first).containsExactlyElementsOf(all.subList(0, 2));
+        assertThat(rest).containsExactlyElementsOf(all.subList(2, 5));
+    }
+
+    @Test
+    @DisplayName("Should find a re-indexed post only by its new text, and a removed one not at all")
+    void testUpdatesAndRemovals() {
+        // Arrange
+        index.index(post(1, "Spring", "About spring", 1), List.of());
+        index.index(post(2, "Spring", "About spring", 1), List.of());
+
+        // Act
+        index.index(post(1, "Quarkus", "About quarkus", 2));
+        index.remove(2);
+
+        // Assert
+        assertThat(index.search("spring", null, 10)).isEmpty();
+        assertThat(index.search("quarkus", null, 10)).extracting(PostIndex.Hit::postId).containsExactly(1);
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should ignore an older version of a post than the one indexed")
+    void testOlderVersionIgnored() {
+        // Arrange
+        index.index(post(1, "Quarkus", "About quarkus", 2), List.of());
+
+        // Act
+        index.index(post(1, "Spring", "About spring", 1), List.of());
+
+        // Assert
+        assertThat(index.search("spring", null, 10)).isEmpty();
+        assertThat(index.versions()).containsEntry(1, 2L);
+    }
+
+    @Test
+    @DisplayName("Should keep answering correctly after dead documents are compacted away")
+    void testCompaction() {
+        // Arrange
+        index.index(post(1, "Spring", "About spring", 0), List.of());
+        index.index(post(2, "Other", "About java", 0), List.of());
+
+        // Act
+        for (long version = 1; version <= 3000; version++) index.index(post(2, "Other", "About java " + version, version), List.of());
+
+        // Assert
+        assertThat(index.size()).isEqualTo(2);
+        assertThat(index.search("spring", null, 10)).extracting(PostIndex.Hit::postId).containsExactly(1);
+        assertThat(index.search("java", null, 10)).extracting(PostIndex.Hit::postId).containsExactly(2);
+    }
+
+    private static Post post(int id, String title, String body, long version) {
+        return new Post(id, 1, title, body, false, LocalDateTime.of(2024, 1, 1, 12, 0), version);
+    }
+}
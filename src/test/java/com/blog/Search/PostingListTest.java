@@ -0,0 +1,61 @@
+package com.blog.Search;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("PostingList Tests")
+class PostingListTest {
+
+    @Test
+    @DisplayName("Should read back every document and frequency, including multi-byte gaps")
+    void testRoundTrip() {
+        // Arrange
+        PostingList list = new PostingList();
+        int[][] postings = {{0, 1}, {1, 3}, {200, 1}, {70_000, 250}, {Integer.MAX_VALUE - 1, 100_000}};
+
+        // Act
+        for (int[] posting : postings) list.add(posting[0], posting[1]);
+
+        // Assert
+        assertThat(visit(list)).containsExactly(postings);
+    }
+
+    @Test
+    @DisplayName("Should renumber documents and drop the ones mapped away")
+    void testRemap() {
+        // Arrange
+        PostingList list = new PostingList();
+        list.add(0, 1);
+        list.add(2, 2);
+        list.add(3, 3);
+
+        // Act
+        PostingList remapped = list.remap(new int[] {0, -1, -1, 1});
+
+        // Assert
+        assertThat(visit(remapped)).containsExactly(new int[] {0, 1}, new int[] {1, 3});
+    }
+
+    @Test
+    @DisplayName("Should refuse documents out of order")
+    void testAscendingOnly() {
+        // Arrange
+        PostingList list = new PostingList();
+        list.add(5, 1);
+
+        // Act & Assert
+        assertThatThrownBy(() -> list.add(5, 1)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static List<int[]> visit(PostingList list) {
+        List<int[]> postings = new ArrayList<>();
+        list.forEach((doc, frequency) -> postings.add(new int[] {doc, frequency}));
+        return postings;
+    }
+}
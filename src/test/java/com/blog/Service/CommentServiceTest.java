@@ -0,0 +1,90 @@
+package com.blog.Service;
+
+import com.blog.Cache.CacheChangeListener;
+import com.blog.Cache.KeysetPagedCache;
+import com.blog.Cache.TrackingCache;
+import com.blog.Model.Comment;
+import com.blog.Repository.CommentRepository;
+import com.blog.Repository.PostRepository;
+import com.blog.Repository.UserRepository;
+import com.blog.Utility.CommentCursor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.cache.support.SimpleCacheManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Comment Service Tests")
+class CommentServiceTest {
+    private CommentRepository repository;
+    private CacheChangeListener listener;
+    private CommentService commentService;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(CommentRepository.class);
+        listener = mock(CacheChangeListener.class);
+        SimpleCacheManager cacheManager = new SimpleCacheManager();
+        cacheManager.setCaches(List.of(
+                tracked(new KeysetPagedCache(new ConcurrentMapCache("Comment.findPage"), element -> CommentCursor.of((Comment) element), CommentCursor::decode)),
+                tracked(new ConcurrentMapCache("Comment.findByPostId")),
+                tracked(new ConcurrentMapCache("Post.commentCount"))
+        ));
+        cacheManager.initializeCaches();
+        commentService = new CommentService(mock(UserRepository.class), mock(PostRepository.class), repository, cacheManager, new SimpleMeterRegistry());
+    }
+
+    @Test
+    @DisplayName("countsFor - Should cache counts on a cold read without reporting a change")
+    void testCountsForFillsUntracked() {
+        // Arrange
+        CommentRepository.CommentCount row = mock(CommentRepository.CommentCount.class);
+        when(row.getPostId()).thenReturn(1);
+        when(row.getCount()).thenReturn(3L);
+        when(repository.sumCommentCounts(any())).thenReturn(List.of(row));
+
+        // Act
+        Map<Integer, Long> first = commentService.countsFor(List.of(1, 2));
+        Map<Integer, Long> second = commentService.countsFor(List.of(1, 2));
+
+        // Assert
+        assertThat(first).containsEntry(1, 3L).containsEntry(2, 0L);
+        assertThat(second).isEqualTo(first);
+        verify(repository, times(1)).sumCommentCounts(any());
+        verify(listener, never()).changed(eq("Post.commentCount"), any());
+    }
+
+    @Test
+    @DisplayName("delete - Should report the post's count as changed")
+    void testDeleteReportsCountChange() {
+        // Arrange
+        Comment comment = new Comment(5, 1, 1, "Nice", LocalDateTime.of(2024, 1, 1, 12, 0));
+        when(repository.findById(5)).thenReturn(Optional.of(comment));
+
+        // Act
+        commentService.delete(5);
+
+        // Assert
+        verify(repository).addToCommentCount(eq(1), anyInt(), eq(-1));
+        verify(listener).changed("Post.commentCount", 1);
+        verify(listener, never()).cleared(anyString());
+    }
+
+    private Cache tracked(Cache cache) {
+        return new TrackingCache(cache, List.of(listener));
+    }
+}
@@ -0,0 +1,96 @@
+package com.blog.Service;
+
+import com.blog.Cache.CacheInvalidationBus;
+import com.blog.DataTransporter.Tags.TagCountDTO;
+import com.blog.Repository.TagRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Tag Statistics Service Tests")
+class TagStatisticsServiceTest {
+    private TagRepository repository;
+    private TagStatisticsService tagStatistics;
+    private Consumer<Object> peerChange;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        repository = mock(TagRepository.class);
+        CacheInvalidationBus bus = mock(CacheInvalidationBus.class);
+        ObjectProvider<CacheInvalidationBus> invalidationBus = mock(ObjectProvider.class);
+        when(invalidationBus.getIfAvailable()).thenReturn(bus);
+        doCallRealMethod().when(invalidationBus).ifAvailable(any());
+        tagStatistics = new TagStatisticsService(repository, invalidationBus, new SimpleMeterRegistry());
+        ArgumentCaptor<Consumer<Object>> handler = ArgumentCaptor.forClass(Consumer.class);
+        verify(bus).onPeerChange(eq("PostTags.findByPostId"), handler.capture());
+        peerChange = handler.getValue();
+    }
+
+    @Test
+    @DisplayName("reconcile - Should apply tag writes made while it ran on top of what it read")
+    void testReconcileKeepsOverlappingWrites() {
+        // Arrange
+        when(repository.countPostsPerTag()).thenAnswer(invocation -> {
+            tagStatistics.changed(List.of("java"), List.of("spring"));
+            return List.of(new TagCountDTO("java", 2), new TagCountDTO("spring", 1));
+        });
+
+        // Act
+        tagStatistics.reconcile();
+
+        // Assert
+        assertThat(tagStatistics.mostUsed(10)).containsExactly(new TagCountDTO("spring", 2), new TagCountDTO("java", 1));
+        verify(repository, times(1)).countPostsPerTag();
+    }
+
+    @Test
+    @DisplayName("mostUsed - Should load the counts once when startup couldn't, even while tags are written")
+    void testFirstQueryLoadsOnce() {
+        // Arrange
+        when(repository.countPostsPerTag()).thenThrow(new IllegalStateException("Mongo unreachable")).thenAnswer(invocation -> {
+            tagStatistics.changed(List.of(), List.of("java"));
+            return List.of(new TagCountDTO("java", 1));
+        });
+        tagStatistics.run(null);
+
+        // Act
+        tagStatistics.mostUsed(10);
+        List<TagCountDTO> mostUsed = tagStatistics.mostUsed(10);
+
+        // Assert
+        assertThat(mostUsed).containsExactly(new TagCountDTO("java", 2));
+        verify(repository, times(2)).countPostsPerTag();
+    }
+
+    @Test
+    @DisplayName("reconcileAfterPeerWrites - Should reconcile once after tag writes announced by peers, and not without them")
+    void testReconcilesAfterPeerWrites() {
+        // Arrange
+        when(repository.countPostsPerTag()).thenReturn(List.of(new TagCountDTO("java", 1)));
+        tagStatistics.reconcile();
+        when(repository.countPostsPerTag()).thenReturn(List.of(new TagCountDTO("java", 1), new TagCountDTO("spring", 1)));
+
+        // Act
+        tagStatistics.reconcileAfterPeerWrites();
+        peerChange.accept(7);
+        peerChange.accept(8);
+        tagStatistics.reconcileAfterPeerWrites();
+        tagStatistics.reconcileAfterPeerWrites();
+
+        // Assert
+        assertThat(tagStatistics.mostUsed(10)).containsExactly(new TagCountDTO("java", 1), new TagCountDTO("spring", 1));
+        verify(repository, times(2)).countPostsPerTag();
+    }
+}